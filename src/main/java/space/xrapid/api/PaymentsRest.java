@@ -1,52 +1,159 @@
 package space.xrapid.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
 import space.xrapid.domain.Currency;
 import space.xrapid.domain.ExchangeToExchangePayment;
+import space.xrapid.domain.PaymentCursor;
 import space.xrapid.domain.Stats;
+import space.xrapid.exception.InvalidParameterException;
 import space.xrapid.service.ApiKeyService;
 import space.xrapid.service.ExchangeToExchangePaymentService;
+import space.xrapid.service.LastPaymentsTracker;
+import space.xrapid.service.StatsAggregator;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
-import java.util.Comparator;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
+/**
+ * Payments history endpoints for API key holders: with a {@code limit}, a page of payments in (timestamp, id)
+ * order, of at most {@value ExchangeToExchangePaymentService#MAX_PAGE_SIZE} payments, the cursor of the next one in the {@value #NEXT_CURSOR_HEADER} header; otherwise every payment
+ * of the range, streamed as a JSON array or, when accepted, as NDJSON.
+ */
 @Path("/payments")
 public class PaymentsRest {
 
+    private static final String NDJSON = "application/x-ndjson";
+
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private ExchangeToExchangePaymentService exchangeToExchangePaymentService;
 
     @Autowired
     private ApiKeyService apiKeyService;
 
+    @Autowired
+    private StatsAggregator statsAggregator;
+
+    @Autowired
+    private LastPaymentsTracker lastPaymentsTracker;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GET
-    @Produces("application/json")
-    public List<ExchangeToExchangePayment> getPayments(@QueryParam("key") String apiKey, @QueryParam("from") Long from, @QueryParam("to") Long to) {
+    @Produces({"application/json", NDJSON})
+    public Response getPayments(@QueryParam("key") String apiKey, @QueryParam("from") Long from, @QueryParam("to") Long to,
+                                @QueryParam("cursor") String cursor, @QueryParam("limit") Integer limit, @Context HttpHeaders headers) {
         if (apiKey != null && from != null && to != null) {
             apiKeyService.validateKey(apiKey);
-            return exchangeToExchangePaymentService.getPayments(from, to);
+            return payments(from, to, null, null, cursor, limit, headers);
         }
-        return exchangeToExchangePaymentService.getLasts().stream().sorted(Comparator.comparing(ExchangeToExchangePayment::getDateTime)).collect(Collectors.toList());
+        return Response.ok(lastPaymentsTracker.getLasts(), MediaType.APPLICATION_JSON_TYPE).build();
     }
 
     @GET
-    @Produces("application/json")
+    @Produces({"application/json", NDJSON})
     @Path("/search")
-    public List<ExchangeToExchangePayment> search(@QueryParam("key") String apiKey, @QueryParam("from") Long from, @QueryParam("to") Long to, @QueryParam("source") Currency source, @QueryParam("destination") Currency destination) {
+    public Response search(@QueryParam("key") String apiKey, @QueryParam("from") Long from, @QueryParam("to") Long to, @QueryParam("source") Currency source, @QueryParam("destination") Currency destination,
+                           @QueryParam("cursor") String cursor, @QueryParam("limit") Integer limit, @Context HttpHeaders headers) {
         apiKeyService.validateKey(apiKey);
 
-        return exchangeToExchangePaymentService.search(from, to, source, destination);
+        return payments(from, to, source, destination, cursor, limit, headers);
     }
 
     @GET
     @Produces("application/json")
     @Path("/stats")
     public Stats getStats() {
-        return exchangeToExchangePaymentService.calculateStats();
+        return statsAggregator.getStats();
+    }
+
+    private Response payments(Long from, Long to, Currency source, Currency destination, String cursor, Integer limit, HttpHeaders headers) {
+        PaymentCursor after = parseCursor(cursor);
+
+        if (limit != null) {
+            if (limit < 1) {
+                throw new InvalidParameterException("limit must be positive");
+            }
+
+            int pageSize = Math.min(limit, ExchangeToExchangePaymentService.MAX_PAGE_SIZE);
+
+            List<ExchangeToExchangePayment> payments = exchangeToExchangePaymentService.getPaymentsAfter(from, to, source, destination, after, pageSize);
+
+            Response.ResponseBuilder response = Response.ok(payments, MediaType.APPLICATION_JSON_TYPE);
+            if (payments.size() == pageSize) {
+                response.header(NEXT_CURSOR_HEADER, PaymentCursor.of(payments.get(payments.size() - 1)));
+            }
+            return response.build();
+        }
+
+        boolean ndjson = headers.getAcceptableMediaTypes().stream()
+                .anyMatch(mediaType -> !mediaType.isWildcardSubtype() && NDJSON.equals(mediaType.getType() + "/" + mediaType.getSubtype()));
+
+        return Response.ok(stream(from, to, source, destination, after, ndjson), ndjson ? NDJSON : MediaType.APPLICATION_JSON).build();
+    }
+
+    /**
+     * Writes payments as they are read from the database, the transaction lasting as long as the response.
+     */
+    private StreamingOutput stream(Long from, Long to, Currency source, Currency destination, PaymentCursor after, boolean ndjson) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        return output -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+            generator.setRootValueSeparator(null);
+
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+
+            try {
+                exchangeToExchangePaymentService.forEachPaymentAfter(from, to, source, destination, after, payment -> {
+                    try {
+                        writer.writeValue(generator, payment);
+                        if (ndjson) {
+                            generator.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+
+            generator.flush();
+        };
+    }
+
+    private static PaymentCursor parseCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+
+        try {
+            return PaymentCursor.parse(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("Invalid cursor " + cursor + ", expected timestamp:id");
+        }
     }
 }
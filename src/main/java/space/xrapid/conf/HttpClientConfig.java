@@ -0,0 +1,83 @@
+package space.xrapid.conf;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import space.xrapid.util.JsonHttpClient;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Non blocking HTTP client shared by all exchange trade services: pooled keep-alive connections
+ * bounded per host, served by a few IO threads, the responses being parsed on a separate pool.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${xrapid.http.io-threads:2}")
+    private int ioThreads;
+
+    @Value("${xrapid.http.max-connections:64}")
+    private int maxConnections;
+
+    @Value("${xrapid.http.max-connections-per-host:4}")
+    private int maxConnectionsPerHost;
+
+    @Value("${xrapid.http.connect-timeout-in-ms:5000}")
+    private int connectTimeout;
+
+    @Value("${xrapid.http.read-timeout-in-ms:15000}")
+    private int readTimeout;
+
+    @Value("${xrapid.http.parse-threads:4}")
+    private int parseThreads;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient tradesHttpClient() throws IOReactorException {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(ioThreads)
+                .setSoKeepAlive(true)
+                .setConnectTimeout(connectTimeout)
+                .setSoTimeout(readTimeout)
+                .build();
+
+        PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+
+        CloseableHttpAsyncClient httpClient = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectTimeout)
+                        .setSocketTimeout(readTimeout)
+                        .setConnectionRequestTimeout(readTimeout)
+                        .build())
+                .build();
+
+        httpClient.start();
+
+        return httpClient;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService tradesParseExecutor() {
+        return Executors.newFixedThreadPool(parseThreads, new CustomizableThreadFactory("trades-parse-"));
+    }
+
+    @Bean
+    public JsonHttpClient tradesJsonClient(CloseableHttpAsyncClient tradesHttpClient, ExecutorService tradesParseExecutor) {
+        return new JsonHttpClient(tradesHttpClient, Jackson2ObjectMapperBuilder.json().build(), tradesParseExecutor);
+    }
+}
@@ -0,0 +1,25 @@
+package space.xrapid.conf;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Threads running the {@code @Scheduled} jobs, so that a long detection cycle does not hold back the trade
+ * pollers, the stats push or the XRPL stream reconnection.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Value("${xrapid.scheduler.pool-size:4}")
+    private int poolSize;
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(poolSize);
+        taskScheduler.setThreadNamePrefix("scheduler-");
+        return taskScheduler;
+    }
+}
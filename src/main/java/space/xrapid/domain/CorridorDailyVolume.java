@@ -0,0 +1,17 @@
+package space.xrapid.domain;
+
+/**
+ * USD volume and number of ODL payments of one corridor during one UTC day.
+ */
+public interface CorridorDailyVolume {
+
+    Long getDay();
+
+    Currency getSourceFiat();
+
+    Currency getDestinationFiat();
+
+    Double getVolume();
+
+    Long getPaymentCount();
+}
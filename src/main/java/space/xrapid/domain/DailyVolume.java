@@ -0,0 +1,14 @@
+package space.xrapid.domain;
+
+/**
+ * USD volume of ODL payments executed during one UTC day.
+ */
+public interface DailyVolume {
+
+    /**
+     * @return days since 1970-01-01
+     */
+    Long getDay();
+
+    Double getVolume();
+}
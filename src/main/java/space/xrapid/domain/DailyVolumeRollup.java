@@ -0,0 +1,34 @@
+package space.xrapid.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+/**
+ * USD volume and number of ODL payments per UTC day and corridor, maintained as payments are saved.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity(name = "DAILY_VOLUME")
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"epochDay", "sourceFiat", "destinationFiat"}))
+public class DailyVolumeRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    private long epochDay;
+
+    @Enumerated(EnumType.STRING)
+    private Currency sourceFiat;
+
+    @Enumerated(EnumType.STRING)
+    private Currency destinationFiat;
+
+    private double volume;
+
+    private long paymentCount;
+}
@@ -1,6 +1,9 @@
 package space.xrapid.domain;
 
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
 
 import static space.xrapid.domain.Currency.*;
 
@@ -92,6 +95,27 @@ public enum Exchange {
     INDODAX("indodax", true, IDR, true, "KUZ3ZFwzgaDGjKBysADByzxvohQ3C" ,"rDDrTcmnCxeTV1hycGdXiaEynYcU1QnSUg", "rB46Pb2mxdCk2zn68MNwZnFQ7Wv2Kjtddr");
 
 
+    private static final Map<String, Exchange> EXCHANGE_BY_ADDRESS;
+    private static final Map<String, Map<Currency, Exchange>> EXCHANGE_BY_ADDRESS_AND_FIAT;
+
+    static {
+        Map<String, Exchange> exchangeByAddress = new HashMap<>();
+        Map<String, Map<Currency, Exchange>> exchangeByAddressAndFiat = new HashMap<>();
+
+        for (Exchange exchange : values()) {
+            for (String address : exchange.addresses) {
+                exchangeByAddress.putIfAbsent(address, exchange);
+                exchangeByAddressAndFiat.computeIfAbsent(address, a -> new EnumMap<>(Currency.class))
+                        .putIfAbsent(exchange.localFiat, exchange);
+            }
+        }
+
+        exchangeByAddressAndFiat.replaceAll((address, exchanges) -> Collections.unmodifiableMap(exchanges));
+
+        EXCHANGE_BY_ADDRESS = Collections.unmodifiableMap(exchangeByAddress);
+        EXCHANGE_BY_ADDRESS_AND_FIAT = Collections.unmodifiableMap(exchangeByAddressAndFiat);
+    }
+
     private String name;
     private Currency localFiat;
     private String[] addresses;
@@ -107,18 +131,15 @@ public enum Exchange {
     }
 
     public static Exchange byAddress(String address) {
-        return Arrays.stream(Exchange.values())
-                .filter(adr -> Arrays.asList(adr.addresses).contains(address)).findAny().orElse(null);
+        return address == null ? null : EXCHANGE_BY_ADDRESS.get(address);
     }
 
     public static Exchange byAddress(String address, Currency fiat) {
         if (fiat == null) {
             return byAddress(address);
         } else {
-            return Arrays.stream(Exchange.values())
-                    .filter(exchange -> Arrays.asList(exchange.addresses).contains(address))
-                    .filter(exchange -> exchange.getLocalFiat().equals(fiat))
-                    .findAny().orElse(null);
+            Map<Currency, Exchange> exchanges = address == null ? null : EXCHANGE_BY_ADDRESS_AND_FIAT.get(address);
+            return exchanges == null ? null : exchanges.get(fiat);
         }
     }
 
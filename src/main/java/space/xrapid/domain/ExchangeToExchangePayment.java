@@ -14,6 +14,10 @@ import java.util.List;
 @EqualsAndHashCode
 @Data
 @Entity(name = "EXCHANGE_PAYMENT")
+@Table(indexes = {
+        @Index(name = "idx_exchange_payment_timestamp", columnList = "timestamp DESC, sourceFiat, destinationFiat, usdValue"),
+        @Index(name = "idx_exchange_payment_corridor", columnList = "sourceFiat, destinationFiat, timestamp")
+})
 public class ExchangeToExchangePayment extends Payment {
 
     private static DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'hh:mm:ss'Z'");
@@ -0,0 +1,60 @@
+package space.xrapid.domain;
+
+import lombok.Getter;
+import lombok.ToString;
+import space.xrapid.domain.ripple.Payment;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * XRP Ledger payment between two known exchanges, mapped once per cycle and shared read-only by all corridors.
+ */
+@Getter
+@ToString
+public final class OdlCandidatePayment {
+
+    private final long timestamp;
+    private final OffsetDateTime dateTime;
+    private final Exchange source;
+    private final Exchange destination;
+    private final String sourceAddress;
+    private final String destinationAddress;
+    private final double amount;
+    private final Long tag;
+    private final String transactionHash;
+    private final boolean confirmed;
+
+    private OdlCandidatePayment(OffsetDateTime dateTime, Exchange source, Exchange destination, Payment payment) {
+        this.timestamp = dateTime.toInstant().toEpochMilli();
+        this.dateTime = dateTime;
+        this.source = source;
+        this.destination = destination;
+        this.sourceAddress = payment.getSource();
+        this.destinationAddress = payment.getDestination();
+        this.amount = payment.getDeliveredAmount();
+        this.tag = payment.getDestinationTag();
+        this.transactionHash = payment.getTxHash();
+        this.confirmed = source.isConfirmed() && destination.isConfirmed();
+    }
+
+    /**
+     * @return the mapped payment, or {@code null} when an address is unknown or the execution time unreadable
+     */
+    public static OdlCandidatePayment of(Payment payment) {
+        Exchange source = Exchange.byAddress(payment.getSource());
+        Exchange destination = Exchange.byAddress(payment.getDestination());
+
+        if (source == null || destination == null || payment.getExecutedTime() == null) {
+            return null;
+        }
+
+        try {
+            OffsetDateTime dateTime = OffsetDateTime.parse(payment.getExecutedTime(), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            return new OdlCandidatePayment(dateTime, source, destination, payment);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
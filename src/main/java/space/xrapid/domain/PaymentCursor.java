@@ -0,0 +1,37 @@
+package space.xrapid.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Last payment returned to an API client, written {@code timestamp:id}: the next page starts right
+ * after it in (timestamp, id) order, whatever was saved in between.
+ */
+@Getter
+@AllArgsConstructor
+public class PaymentCursor {
+    private final long timestamp;
+    private final int id;
+
+    public static PaymentCursor of(ExchangeToExchangePayment payment) {
+        return new PaymentCursor(payment.getTimestamp(), payment.getId());
+    }
+
+    /**
+     * @throws IllegalArgumentException when {@code cursor} is not {@code timestamp:id}
+     */
+    public static PaymentCursor parse(String cursor) {
+        int separator = cursor.indexOf(':');
+
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor);
+        }
+
+        return new PaymentCursor(Long.parseLong(cursor.substring(0, separator)), Integer.parseInt(cursor.substring(separator + 1)));
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + ":" + id;
+    }
+}
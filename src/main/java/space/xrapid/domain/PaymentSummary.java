@@ -0,0 +1,72 @@
+package space.xrapid.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only view of a payment, limited to what the dashboard lists, trade ids already split.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PaymentSummary {
+    private final Long timestamp;
+    private final OffsetDateTime dateTime;
+    private final Double amount;
+    private final double usdValue;
+    private final Exchange source;
+    private final Exchange destination;
+    private final Currency sourceFiat;
+    private final Currency destinationFiat;
+    private final Long tag;
+    private final String transactionHash;
+    private final List<String> xrpToFiatTradeIds;
+    private final List<String> fiatToXrpTradeIds;
+
+    /**
+     * Projection constructor, trade ids being read as saved, joined by {@code ;}.
+     */
+    public PaymentSummary(Long timestamp, OffsetDateTime dateTime, Double amount, double usdValue, Exchange source, Exchange destination,
+                          Currency sourceFiat, Currency destinationFiat, Long tag, String transactionHash, String tradeIds, String tradeOutIds) {
+        this(timestamp, dateTime, amount, usdValue, source, destination, sourceFiat, destinationFiat, tag, transactionHash, split(tradeIds), split(tradeOutIds));
+    }
+
+    private PaymentSummary(Long timestamp, OffsetDateTime dateTime, Double amount, double usdValue, Exchange source, Exchange destination,
+                           Currency sourceFiat, Currency destinationFiat, Long tag, String transactionHash, List<String> xrpToFiatTradeIds, List<String> fiatToXrpTradeIds) {
+        this.timestamp = timestamp;
+        this.dateTime = dateTime;
+        this.amount = amount;
+        this.usdValue = usdValue;
+        this.source = source;
+        this.destination = destination;
+        this.sourceFiat = sourceFiat;
+        this.destinationFiat = destinationFiat;
+        this.tag = tag;
+        this.transactionHash = transactionHash;
+        this.xrpToFiatTradeIds = xrpToFiatTradeIds;
+        this.fiatToXrpTradeIds = fiatToXrpTradeIds;
+    }
+
+    /**
+     * Reuses the trade id lists set at detection, payments replayed from the spill file only having the joined ids.
+     */
+    public static PaymentSummary of(ExchangeToExchangePayment payment) {
+        return new PaymentSummary(payment.getTimestamp(), payment.getDateTime(), payment.getAmount(), payment.getUsdValue(),
+                payment.getSource(), payment.getDestination(), payment.getSourceFiat(), payment.getDestinationFiat(), payment.getTag(),
+                payment.getTransactionHash(),
+                tradeIds(payment.getXrpToFiatTradeIds(), payment.getTradeIds()),
+                tradeIds(payment.getFiatToXrpTradeIds(), payment.getTradeOutIds()));
+    }
+
+    private static List<String> tradeIds(List<String> tradeIds, String joinedTradeIds) {
+        return tradeIds == null || tradeIds.isEmpty() ? split(joinedTradeIds) : Collections.unmodifiableList(tradeIds);
+    }
+
+    private static List<String> split(String tradeIds) {
+        return tradeIds == null || tradeIds.isEmpty() ? null : Collections.unmodifiableList(Arrays.asList(tradeIds.split(";")));
+    }
+}
@@ -0,0 +1,18 @@
+package space.xrapid.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Newest trade already collected from an exchange, from which the next fetch only has to return the delta.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TradeCursor {
+    private final OffsetDateTime dateTime;
+    private final String orderId;
+}
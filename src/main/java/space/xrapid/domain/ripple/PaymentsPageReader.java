@@ -0,0 +1,139 @@
+package space.xrapid.domain.ripple;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import space.xrapid.domain.Exchange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams a data.ripple.com payments page and only materializes payments above the minimum amount
+ * between known exchanges, balance changes and other payments being skipped token by token.
+ */
+public class PaymentsPageReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final double minAmount;
+
+    public PaymentsPageReader(double minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    public Payments read(InputStream body) throws IOException {
+        return read(body, marker -> {
+        });
+    }
+
+    /**
+     * @param markerListener notified as soon as a non empty marker is parsed, before the payments are consumed
+     */
+    public Payments read(InputStream body, Consumer<String> markerListener) throws IOException {
+        Payments page = new Payments();
+        List<Payment> payments = new ArrayList<>();
+        page.setPayments(payments);
+
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Payments page is not a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if ("marker".equals(field)) {
+                    page.setMarker(value == JsonToken.VALUE_NULL ? null : parser.getText());
+                    if (page.getMarker() != null && !page.getMarker().isEmpty()) {
+                        markerListener.accept(page.getMarker());
+                    }
+                } else if ("result".equals(field)) {
+                    page.setResult(parser.getText());
+                } else if ("count".equals(field)) {
+                    page.setCount(parser.getValueAsInt());
+                } else if ("payments".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        Payment payment = readPayment(parser);
+                        if (payment != null) {
+                            payments.add(payment);
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return page;
+    }
+
+    private Payment readPayment(JsonParser parser) throws IOException {
+        Payment payment = new Payment();
+        boolean rejected = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+
+            if (rejected || value == JsonToken.VALUE_NULL) {
+                parser.skipChildren();
+                continue;
+            }
+
+            switch (field) {
+                case "amount":
+                    payment.setAmount(parser.getValueAsDouble());
+                    rejected = payment.getAmount() <= minAmount;
+                    break;
+                case "delivered_amount":
+                    payment.setDeliveredAmount(parser.getValueAsDouble());
+                    break;
+                case "source":
+                    payment.setSource(parser.getText());
+                    rejected = Exchange.byAddress(payment.getSource()) == null;
+                    break;
+                case "destination":
+                    payment.setDestination(parser.getText());
+                    rejected = Exchange.byAddress(payment.getDestination()) == null;
+                    break;
+                case "destination_tag":
+                    payment.setDestinationTag(parser.getValueAsLong());
+                    break;
+                case "executed_time":
+                    payment.setExecutedTime(parser.getText());
+                    break;
+                case "tx_hash":
+                    payment.setTxHash(parser.getText());
+                    break;
+                case "currency":
+                    payment.setCurrency(parser.getText());
+                    break;
+                case "source_currency":
+                    payment.setSourceCurrency(parser.getText());
+                    break;
+                case "ledger_index":
+                    payment.setLedgerIndex(parser.getValueAsInt());
+                    break;
+                case "tx_index":
+                    payment.setTxIndex(parser.getValueAsInt());
+                    break;
+                case "transaction_cost":
+                    payment.setTransactionCost(parser.getText());
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        if (rejected || payment.getAmount() <= minAmount || payment.getSource() == null || payment.getDestination() == null) {
+            return null;
+        }
+
+        return payment;
+    }
+}
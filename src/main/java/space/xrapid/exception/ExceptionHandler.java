@@ -17,6 +17,8 @@ public class ExceptionHandler implements ExceptionMapper<RuntimeException> {
 
         if (UnauthorizedException.class.isInstance(ex)) {
             return Response.status(Response.Status.UNAUTHORIZED).entity("").build();
+        } else if (InvalidParameterException.class.isInstance(ex)) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(ex.getMessage()).build();
         } else {
             log.error("Internal Error", ex);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Internal Error").build();
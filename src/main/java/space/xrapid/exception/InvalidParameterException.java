@@ -0,0 +1,8 @@
+package space.xrapid.exception;
+
+public class InvalidParameterException extends RuntimeException {
+
+    public InvalidParameterException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,90 @@
+package space.xrapid.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import space.xrapid.domain.ExchangeToExchangePayment;
+import space.xrapid.listener.XrapidCorridors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Runs corridor searches on a bounded worker pool, then claims their detected payments
+ * on the calling thread in submission order, so that the first corridor claiming a transaction
+ * is always the same whatever the threads timing. Claimed payments are handed over to the
+ * {@link PaymentWriter}, and only notified once saved.
+ */
+@Slf4j
+@Component
+public class CorridorSearchExecutor {
+
+    @Autowired
+    private PaymentWriter paymentWriter;
+
+    @Value("${xrapid.corridors.threads:4}")
+    private int threads;
+
+    @Value("${xrapid.corridors.timeout-in-seconds:20}")
+    private long timeoutInSeconds;
+
+    private ExecutorService executor;
+
+    private ScheduledExecutorService watchdog;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("corridor-"));
+        watchdog = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("corridor-watchdog-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    public void searchAndCommit(List<Callable<List<XrapidCorridors>>> searches) {
+        List<FutureTask<List<XrapidCorridors>>> futures = searches.stream()
+                .map(this::submit)
+                .collect(Collectors.toList());
+
+        List<ExchangeToExchangePayment> claimedPayments = new ArrayList<>();
+
+        for (FutureTask<List<XrapidCorridors>> future : futures) {
+            try {
+                future.get().forEach(corridors -> claimedPayments.addAll(corridors.claimPayments()));
+            } catch (CancellationException e) {
+                log.warn("Corridor search cancelled after {}s", timeoutInSeconds);
+            } catch (ExecutionException e) {
+                log.error("Corridor search failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(task -> task.cancel(true));
+                return;
+            }
+        }
+
+        paymentWriter.write(claimedPayments);
+    }
+
+    private FutureTask<List<XrapidCorridors>> submit(Callable<List<XrapidCorridors>> search) {
+        FutureTask<List<XrapidCorridors>> future = new FutureTask<>(search);
+
+        executor.execute(() -> {
+            ScheduledFuture<?> timeout = watchdog.schedule(() -> future.cancel(true), timeoutInSeconds, TimeUnit.SECONDS);
+            try {
+                future.run();
+            } finally {
+                timeout.cancel(false);
+            }
+        });
+
+        return future;
+    }
+}
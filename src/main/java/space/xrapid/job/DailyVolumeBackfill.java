@@ -0,0 +1,25 @@
+package space.xrapid.job;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import space.xrapid.service.ExchangeToExchangePaymentService;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Computes the daily volumes of the payments saved before they were maintained on write.
+ * <p>
+ * Runs during context initialization, before {@link PaymentWriter} starts saving payments once
+ * the application is ready, so that no payment is counted twice.
+ */
+@Component
+public class DailyVolumeBackfill {
+
+    @Autowired
+    private ExchangeToExchangePaymentService exchangeToExchangePaymentService;
+
+    @PostConstruct
+    public void backfill() {
+        exchangeToExchangePaymentService.backfillDailyVolumes();
+    }
+}
@@ -0,0 +1,320 @@
+package space.xrapid.job;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import space.xrapid.domain.ExchangeToExchangePayment;
+import space.xrapid.domain.SpottedAt;
+import space.xrapid.service.ExchangeToExchangePaymentService;
+import space.xrapid.service.XrapidInboundAddressService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Saves claimed payments in the background so that detection never waits for the database.
+ * <p>
+ * Payments are queued then saved in groups by a single writer thread, retried while the database
+ * failure looks transient. Payments that still cannot be saved, or that do not fit in the queue,
+ * are appended to a local spill file, replayed once the database accepts writes again. Replaying
+ * twice is harmless: payments already saved are skipped on their transaction hash.
+ */
+@Slf4j
+@Component
+public class PaymentWriter {
+
+    private static final long POLL_TIMEOUT_IN_MS = 1000;
+    private static final long REPLAY_INTERVAL_IN_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final long RETRY_DELAY_IN_MS = 1000;
+
+    @Autowired
+    private ExchangeToExchangePaymentService exchangeToExchangePaymentService;
+
+    @Autowired
+    private XrapidInboundAddressService xrapidInboundAddressService;
+
+    @Value("${xrapid.persistence.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${xrapid.persistence.batch-size:200}")
+    private int batchSize;
+
+    @Value("${xrapid.persistence.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${xrapid.persistence.spill-file:payments-spill.ndjson}")
+    private String spillFile;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .addMixIn(ExchangeToExchangePayment.class, SpilledPayment.class);
+
+    private final Object spillLock = new Object();
+
+    private BlockingQueue<ExchangeToExchangePayment> queue;
+
+    private ExecutorService writer;
+
+    private volatile boolean running = true;
+
+    private long nextReplayAt;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        writer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("payment-writer-"));
+    }
+
+    /**
+     * Starts saving once the application is ready, so that every listener of saved payments is registered
+     * and the daily volumes are backfilled before the first payment, spilled ones included, is saved.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        writer.execute(this::run);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.shutdown();
+        writer.awaitTermination(30, TimeUnit.SECONDS);
+
+        List<ExchangeToExchangePayment> unsaved = new ArrayList<>();
+        queue.drainTo(unsaved);
+        if (!unsaved.isEmpty()) {
+            spill(unsaved);
+        }
+    }
+
+    public void write(List<ExchangeToExchangePayment> payments) {
+        for (ExchangeToExchangePayment payment : payments) {
+            if (!queue.offer(payment)) {
+                log.warn("Payment queue full, spilling {}", payment.getTransactionHash());
+                spill(Collections.singletonList(payment));
+            }
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<ExchangeToExchangePayment> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                ExchangeToExchangePayment first = queue.poll(POLL_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
+
+                if (first == null) {
+                    if (System.currentTimeMillis() >= nextReplayAt) {
+                        replaySpill();
+                    }
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                if (persist(batch)) {
+                    replaySpill();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Payment writer error", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * @return false when the database stayed unavailable, the payments not saved being spilled
+     */
+    private boolean persist(List<ExchangeToExchangePayment> payments) throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                afterSave(exchangeToExchangePaymentService.saveAll(payments));
+                return true;
+            } catch (Exception e) {
+                if (!isTransient(e)) {
+                    log.error("Error persisting {} payments, saving them one by one", payments.size(), e);
+                    return persistOneByOne(payments);
+                }
+
+                if (attempt >= maxRetries) {
+                    log.error("Database unavailable, {} payments not persisted", payments.size(), e);
+                    spillUntilReplay(payments);
+                    return false;
+                }
+
+                log.warn("Transient error persisting {} payments, attempt {}/{}", payments.size(), attempt + 1, maxRetries, e);
+                Thread.sleep(RETRY_DELAY_IN_MS << attempt);
+            }
+        }
+    }
+
+    /**
+     * Drops only the payments the database rejects, spilling the remaining ones once it becomes unavailable.
+     */
+    private boolean persistOneByOne(List<ExchangeToExchangePayment> payments) {
+        for (int i = 0; i < payments.size(); i++) {
+            ExchangeToExchangePayment payment = payments.get(i);
+
+            try {
+                afterSave(exchangeToExchangePaymentService.saveAll(Collections.singletonList(payment)));
+            } catch (Exception e) {
+                if (isTransient(e)) {
+                    log.error("Database unavailable, {} payments not persisted", payments.size() - i, e);
+                    spillUntilReplay(payments.subList(i, payments.size()));
+                    return false;
+                }
+
+                log.error("Dropping payment {}", payment, e);
+            }
+        }
+        return true;
+    }
+
+    private void spillUntilReplay(List<ExchangeToExchangePayment> payments) {
+        nextReplayAt = System.currentTimeMillis() + REPLAY_INTERVAL_IN_MS;
+        spill(payments);
+    }
+
+    private void afterSave(List<ExchangeToExchangePayment> savedPayments) {
+        for (ExchangeToExchangePayment payment : savedPayments) {
+            if (SpottedAt.SOURCE_AND_DESTINATION.equals(payment.getSpottedAt())) {
+                try {
+                    xrapidInboundAddressService.add(payment);
+                    log.info("{}:{} added as ODL destination candidate.", payment.getDestinationAddress(), payment.getTag());
+                } catch (Exception e) {
+                    log.error("Error adding {}:{} as ODL destination candidate", payment.getDestinationAddress(), payment.getTag(), e);
+                }
+            }
+        }
+    }
+
+    private void spill(List<ExchangeToExchangePayment> payments) {
+        synchronized (spillLock) {
+            try (FileOutputStream output = new FileOutputStream(spillFile, true)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+
+                for (ExchangeToExchangePayment payment : payments) {
+                    writer.write(objectMapper.writeValueAsString(payment));
+                    writer.write('\n');
+                }
+
+                writer.flush();
+                output.getFD().sync();
+
+                log.warn("{} payments spilled to {}", payments.size(), spillFile);
+            } catch (IOException e) {
+                log.error("Unable to spill {} payments to {}, lost: {}", payments.size(), spillFile, payments, e);
+            }
+        }
+    }
+
+    /**
+     * Moves the spill file aside, so that payments spilled meanwhile go to a new one, then saves its payments.
+     */
+    private void replaySpill() throws InterruptedException {
+        Path replayed = Paths.get(spillFile + ".replay");
+
+        synchronized (spillLock) {
+            try {
+                if (!Files.exists(replayed)) {
+                    Path spilled = Paths.get(spillFile);
+                    if (!Files.exists(spilled)) {
+                        return;
+                    }
+                    Files.move(spilled, replayed, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                log.error("Unable to replay {}", spillFile, e);
+                return;
+            }
+        }
+
+        List<ExchangeToExchangePayment> payments = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(replayed, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    payments.add(objectMapper.readValue(line, ExchangeToExchangePayment.class));
+                }
+            }
+        } catch (IOException e) {
+            log.error("Unable to read {}", replayed, e);
+            nextReplayAt = System.currentTimeMillis() + REPLAY_INTERVAL_IN_MS;
+            return;
+        }
+
+        log.info("Replaying {} spilled payments", payments.size());
+
+        for (int from = 0; from < payments.size(); from += batchSize) {
+            List<ExchangeToExchangePayment> batch = payments.subList(from, Math.min(payments.size(), from + batchSize));
+
+            if (!persist(batch)) {
+                if (from + batch.size() < payments.size()) {
+                    spill(payments.subList(from + batch.size(), payments.size()));
+                }
+                break;
+            }
+        }
+
+        try {
+            Files.delete(replayed);
+        } catch (IOException e) {
+            log.error("Unable to delete {}", replayed, e);
+        }
+    }
+
+    private static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @JsonIgnoreProperties({"xrpToFiatTrades", "fiatToXrpTrades", "xrpToFiatTradeIds", "fiatToXrpTradeIds", "dateAsString"})
+    private abstract static class SpilledPayment {
+    }
+}
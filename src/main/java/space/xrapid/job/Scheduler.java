@@ -8,17 +8,22 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import space.xrapid.domain.Currency;
 import space.xrapid.domain.Exchange;
-import space.xrapid.domain.Stats;
+import space.xrapid.domain.OdlCandidatePayment;
 import space.xrapid.domain.Trade;
 import space.xrapid.domain.ripple.Payment;
+import space.xrapid.listener.XrapidCorridors;
 import space.xrapid.listener.endtoend.EndToEndXrapidCorridors;
 import space.xrapid.listener.inbound.InboundXrapidCorridors;
 import space.xrapid.listener.outbound.OutboundXrapidCorridors;
 import space.xrapid.service.*;
+import space.xrapid.util.ExpiringTransactionHashSet;
+import space.xrapid.util.TradeIndex;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -31,7 +36,7 @@ public class Scheduler {
     private List<TradeService> tradeServices;
 
     @Autowired
-    private XrpLedgerService xrpLedgerService;
+    private XrplPaymentSource xrplPaymentSource;
 
     @Autowired
     private ExchangeToExchangePaymentService exchangeToExchangePaymentService;
@@ -46,11 +51,17 @@ public class Scheduler {
     @Autowired
     private RateService rateService;
 
-    public static Set<String> transactionHashes = new HashSet<>();
+    @Autowired
+    private CorridorSearchExecutor corridorSearchExecutor;
+
+    @Autowired
+    private TradeFetcher tradeFetcher;
 
     private static int MAX_TRADE_DELAY_IN_MINUTES = 8;
     private static int XRPL_PAYMENT_WINDOW_SIZE_IN_MINUTES = 1;
 
+    public static ExpiringTransactionHashSet transactionHashes = new ExpiringTransactionHashSet(Duration.ofMinutes(3 * (MAX_TRADE_DELAY_IN_MINUTES + XRPL_PAYMENT_WINDOW_SIZE_IN_MINUTES)));
+
 
     private OffsetDateTime lastWindowEnd;
     private OffsetDateTime windowStart;
@@ -66,7 +77,7 @@ public class Scheduler {
         List<Exchange> allConfirmedExchange = Stream.of(Exchange.values()).collect(Collectors.toList());
         List<Exchange> availableExchangesWithApi = tradeServices.stream().map(TradeService::getExchange).collect(Collectors.toList());
 
-        Set<Currency> destinationFiats = availableExchangesWithApi.stream().map(Exchange::getLocalFiat).collect(Collectors.toSet());
+        Set<Currency> destinationFiats = availableExchangesWithApi.stream().map(Exchange::getLocalFiat).collect(Collectors.toCollection(() -> EnumSet.noneOf(Currency.class)));
 
         try {
             updatePaymentsWindows();
@@ -74,7 +85,7 @@ public class Scheduler {
             OffsetDateTime xrplPaymentsStart = windowEnd.minusMinutes(MAX_TRADE_DELAY_IN_MINUTES + XRPL_PAYMENT_WINDOW_SIZE_IN_MINUTES);
             OffsetDateTime xrplPaymentsEnd = windowEnd.minusMinutes(MAX_TRADE_DELAY_IN_MINUTES);
             log.info("Fetching payments from XRP Ledger from {} to {}", xrplPaymentsStart, xrplPaymentsEnd);
-            List<Payment> payments = xrpLedgerService.fetchOdlCandidatePayments(xrplPaymentsStart, xrplPaymentsEnd);
+            List<Payment> payments = xrplPaymentSource.fetchOdlCandidatePayments(xrplPaymentsStart, xrplPaymentsEnd);
 
             log.info("{} payments fetched from XRP Ledger", payments.size());
 
@@ -82,63 +93,59 @@ public class Scheduler {
                 return;
             }
 
-            List<Trade> allTrades = new ArrayList<>();
-
-            tradeServices.parallelStream()
-                    .filter(service -> service.getExchange().isConfirmed())
-                    .forEach(tradeService -> {
-                        try {
-                            OffsetDateTime sellTradesStart = windowEnd.minusMinutes(MAX_TRADE_DELAY_IN_MINUTES + XRPL_PAYMENT_WINDOW_SIZE_IN_MINUTES + MAX_TRADE_DELAY_IN_MINUTES);
-                            List<Trade> trades = tradeService.fetchTrades(sellTradesStart);
-                            allTrades.addAll(trades);
-                            log.info("{} trades fetched from {} from {}", trades.size(), tradeService.getExchange(), sellTradesStart);
-                        } catch (Exception e) {
-                            log.error("Error fetching {} trades", tradeService.getExchange());
-                        }
-                    });
+            List<OdlCandidatePayment> candidates = Collections.unmodifiableList(payments.stream()
+                    .map(OdlCandidatePayment::of)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+
+            OffsetDateTime sellTradesStart = windowEnd.minusMinutes(MAX_TRADE_DELAY_IN_MINUTES + XRPL_PAYMENT_WINDOW_SIZE_IN_MINUTES + MAX_TRADE_DELAY_IN_MINUTES);
+            List<Trade> allTrades = tradeFetcher.fetchTrades(sellTradesStart);
+
+            TradeIndex tradeIndex = new TradeIndex(allTrades);
 
             double rate = rateService.getXrpUsdRate();
 
+            List<Callable<List<XrapidCorridors>>> searches = new ArrayList<>();
+
             log.info("Search all XRPL TRX between exchanges that providing API, basing on confirmed destination tag");
             destinationFiats.forEach(fiat -> {
                 availableExchangesWithApi.stream()
                         .filter(exchange -> !exchange.getLocalFiat().equals(fiat))
                         .forEach(exchange -> {
-                            new EndToEndXrapidCorridors(exchangeToExchangePaymentService, xrapidInboundAddressService, messagingTemplate, exchange, fiat, 60, 60, false, null)
-                                    .searchXrapidPayments(payments, allTrades, rate);
+                            searches.add(search(candidates, tradeIndex, rate,
+                                    new EndToEndXrapidCorridors(exchangeToExchangePaymentService, xrapidInboundAddressService, messagingTemplate, exchange, fiat, 60, 60, false, null)));
                         });
             });
 
             log.info("Search all XRPL TRX between exchanges that providing API for new corridors basing on trades sum matching on both exchanges");
             destinationFiats.forEach(fiat -> {
-            availableExchangesWithApi.stream()
+                availableExchangesWithApi.stream()
                         .filter(exchange -> !exchange.getLocalFiat().equals(fiat))
                         .forEach(exchange -> {
-                            final Set<String> tradeIds = new HashSet<>();
-                            Arrays.asList(45, 60, 60 * MAX_TRADE_DELAY_IN_MINUTES).forEach(delta -> {
-                                new EndToEndXrapidCorridors(exchangeToExchangePaymentService, xrapidInboundAddressService, messagingTemplate, exchange, fiat, delta, delta, true, tradeIds)
-                                        .searchXrapidPayments(payments, allTrades, rate);
-                            });
+                            final BitSet tradeIds = new BitSet();
+                            searches.add(search(candidates, tradeIndex, rate, Stream.of(45, 60, 60 * MAX_TRADE_DELAY_IN_MINUTES)
+                                    .map(delta -> new EndToEndXrapidCorridors(exchangeToExchangePaymentService, xrapidInboundAddressService, messagingTemplate, exchange, fiat, delta, delta, true, tradeIds))
+                                    .toArray(XrapidCorridors[]::new)));
                         });
             });
 
             log.info("Search all XRPL TRX between all exchanges, that are followed by a sell in the local currency (in case source exchange not providing API)");
             availableExchangesWithApi.forEach(exchange -> {
-                new InboundXrapidCorridors(exchangeToExchangePaymentService, messagingTemplate, exchange, availableExchangesWithApi).searchXrapidPayments(payments, allTrades.stream().filter(trade -> trade.getExchange().equals(exchange)).collect(Collectors.toList()), rate);
+                searches.add(search(candidates, tradeIndex, rate,
+                        new InboundXrapidCorridors(exchangeToExchangePaymentService, messagingTemplate, exchange, availableExchangesWithApi)));
             });
 
             log.info("Search for all XRPL TRX from exchanges with API to all exchanes (in case destination exchange not providing API)");
             allConfirmedExchange.stream()
                     .filter(exchange -> !availableExchangesWithApi.contains(exchange))
                     .forEach(exchange -> {
-                        new OutboundXrapidCorridors(exchangeToExchangePaymentService, messagingTemplate, exchange, availableExchangesWithApi).searchXrapidPayments(payments, allTrades, rate);
+                        searches.add(search(candidates, tradeIndex, rate,
+                                new OutboundXrapidCorridors(exchangeToExchangePaymentService, messagingTemplate, exchange, availableExchangesWithApi)));
                     });
 
-            Stats stats = exchangeToExchangePaymentService.calculateStats();
+            corridorSearchExecutor.searchAndCommit(searches);
 
-            if (stats != null) {
-                messagingTemplate.convertAndSend("/topic/stats", exchangeToExchangePaymentService.calculateStats());
-            }
+            log.info("{} transaction hashes tracked for deduplication", transactionHashes.size());
 
         } catch (Exception e) {
             log.error("", e);
@@ -151,6 +158,15 @@ public class Scheduler {
 
     }
 
+    private Callable<List<XrapidCorridors>> search(List<OdlCandidatePayment> payments, TradeIndex tradeIndex, double rate, XrapidCorridors... chain) {
+        return () -> {
+            for (XrapidCorridors corridors : chain) {
+                corridors.searchXrapidPayments(payments, tradeIndex, rate);
+            }
+            return Arrays.asList(chain);
+        };
+    }
+
     private void updatePaymentsWindows() {
         windowEnd = OffsetDateTime.now(ZoneOffset.UTC);
         windowStart = windowEnd.minusMinutes(20);
@@ -0,0 +1,199 @@
+package space.xrapid.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import space.xrapid.domain.Exchange;
+import space.xrapid.domain.Trade;
+import space.xrapid.domain.TradeCursor;
+import space.xrapid.service.TradeService;
+import space.xrapid.util.TokenBucket;
+import space.xrapid.util.TradeWindow;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Polls trades of every confirmed exchange, through the non blocking HTTP client, and merges them
+ * into one immutable snapshot.
+ * <p>
+ * Trades are kept per exchange between cycles in a {@link TradeWindow} covering the matching horizon,
+ * so that once a first full fetch is done only trades newer than the exchange cursor are requested,
+ * trades published late by an exchange becoming visible to the next cycle.
+ * <p>
+ * Each exchange is polled in the background at its own interval, within its own token bucket, and
+ * backs off exponentially while its API fails.
+ */
+@Slf4j
+@Component
+public class TradeFetcher {
+
+    private static final long MAX_BACKOFF_IN_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final int BUCKET_CAPACITY = 3;
+
+    @Autowired
+    private List<TradeService> tradeServices;
+
+    @Value("${xrapid.trades.fetch-timeout-in-seconds:20}")
+    private long timeoutInSeconds;
+
+    private final Map<Exchange, Long> fetchDurations = new ConcurrentHashMap<>();
+
+    private final Map<Exchange, Integer> fetchCounts = new ConcurrentHashMap<>();
+
+    private final Map<Exchange, TradeWindow> windows = new ConcurrentHashMap<>();
+
+    private final Map<Exchange, Poller> pollers = new ConcurrentHashMap<>();
+
+    private volatile Duration horizon;
+
+    /**
+     * Polls due exchanges, waits for the polls in progress, then returns the trades collected since {@code begin}.
+     */
+    public List<Trade> fetchTrades(OffsetDateTime begin) {
+        horizon = Duration.between(begin, OffsetDateTime.now(ZoneOffset.UTC));
+
+        Map<Exchange, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+
+        tradeServices.stream()
+                .filter(service -> service.getExchange().isConfirmed())
+                .forEach(service -> futures.put(service.getExchange(), poller(service).pollIfDue(begin)));
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeoutInSeconds);
+
+        List<Trade> trades = new ArrayList<>();
+
+        futures.forEach((exchange, future) -> {
+            try {
+                future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.error("Timeout fetching {} trades", exchange);
+            } catch (ExecutionException e) {
+                log.error("Error fetching {} trades", exchange);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            TradeWindow window = windows.get(exchange);
+            if (window != null) {
+                window.evictBefore(begin);
+                trades.addAll(window.snapshot());
+            }
+        });
+
+        log.info("{} trades in windows since {}, last fetches: {}", trades.size(), begin, lastFetches(futures.keySet()));
+
+        return Collections.unmodifiableList(trades);
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void poll() {
+        Duration currentHorizon = horizon;
+
+        if (currentHorizon == null) {
+            return;
+        }
+
+        OffsetDateTime begin = OffsetDateTime.now(ZoneOffset.UTC).minus(currentHorizon);
+
+        tradeServices.stream()
+                .filter(service -> service.getExchange().isConfirmed())
+                .forEach(service -> poller(service).pollIfDue(begin));
+    }
+
+    private String lastFetches(Collection<Exchange> exchanges) {
+        StringJoiner lastFetches = new StringJoiner(", ");
+
+        for (Exchange exchange : exchanges) {
+            Long duration = fetchDurations.get(exchange);
+            if (duration != null) {
+                lastFetches.add(exchange + " " + fetchCounts.get(exchange) + " trades in " + duration + " ms");
+            }
+        }
+
+        return lastFetches.toString();
+    }
+
+    private Poller poller(TradeService tradeService) {
+        return pollers.computeIfAbsent(tradeService.getExchange(), exchange -> new Poller(tradeService));
+    }
+
+    private CompletableFuture<Void> fetch(TradeService tradeService, OffsetDateTime begin) {
+        long start = System.currentTimeMillis();
+
+        TradeWindow window = windows.computeIfAbsent(tradeService.getExchange(), exchange -> new TradeWindow());
+        window.evictBefore(begin);
+
+        TradeCursor cursor = window.cursor();
+
+        return CompletableFuture.completedFuture(cursor)
+                .thenCompose(since -> since == null || since.getDateTime().isBefore(begin)
+                        ? tradeService.fetchTrades(begin)
+                        : tradeService.fetchTrades(begin, since))
+                .thenAccept(trades -> {
+                    int added = window.merge(trades);
+
+                    long duration = System.currentTimeMillis() - start;
+                    fetchDurations.put(tradeService.getExchange(), duration);
+                    fetchCounts.put(tradeService.getExchange(), trades.size());
+
+                    log.debug("{} trades fetched from {} since {} in {} ms, {} new", trades.size(), tradeService.getExchange(), cursor == null ? begin : cursor.getDateTime(), duration, added);
+                });
+    }
+
+    /**
+     * Polling state of one exchange: at most one poll in progress, the next one not before its due time.
+     */
+    private class Poller {
+
+        private final TradeService tradeService;
+
+        private final TokenBucket bucket;
+
+        private final long intervalInMs;
+
+        private CompletableFuture<Void> inProgress = CompletableFuture.completedFuture(null);
+
+        private long nextPollAt;
+
+        private int failures;
+
+        private Poller(TradeService tradeService) {
+            this.tradeService = tradeService;
+            this.intervalInMs = tradeService.getPollingInterval().toMillis();
+            this.bucket = new TokenBucket(BUCKET_CAPACITY, tradeService.getMaxPollsPerMinute() / 60d);
+        }
+
+        private synchronized CompletableFuture<Void> pollIfDue(OffsetDateTime begin) {
+            if (!inProgress.isDone() || System.currentTimeMillis() < nextPollAt || !bucket.tryAcquire()) {
+                return inProgress;
+            }
+
+            inProgress = fetch(tradeService, begin);
+            inProgress.whenComplete((result, error) -> completed(error));
+
+            return inProgress;
+        }
+
+        private synchronized void completed(Throwable error) {
+            if (error == null) {
+                failures = 0;
+                nextPollAt = System.currentTimeMillis() + intervalInMs;
+                return;
+            }
+
+            failures++;
+
+            long backoff = Math.min(MAX_BACKOFF_IN_MS, intervalInMs << Math.min(failures, 16));
+            nextPollAt = System.currentTimeMillis() + backoff;
+
+            log.warn("{} trades poll failed {} times in a row, next attempt in {} ms", tradeService.getExchange(), failures, backoff);
+        }
+    }
+}
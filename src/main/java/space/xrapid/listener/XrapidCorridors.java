@@ -4,18 +4,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.ExchangeToExchangePayment;
+import space.xrapid.domain.OdlCandidatePayment;
 import space.xrapid.domain.SpottedAt;
 import space.xrapid.domain.Trade;
-import space.xrapid.domain.ripple.Payment;
 import space.xrapid.service.ExchangeToExchangePaymentService;
 import space.xrapid.service.XrapidInboundAddressService;
+import space.xrapid.util.TradeBatch;
+import space.xrapid.util.TradeIndex;
 import space.xrapid.util.TradesCombinaisonsHelper;
 
-import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static space.xrapid.job.Scheduler.transactionHashes;
@@ -23,10 +21,11 @@ import static space.xrapid.job.Scheduler.transactionHashes;
 @Slf4j
 public abstract class XrapidCorridors {
 
-    protected List<Trade> trades = new ArrayList<>();
+    protected TradeIndex trades;
 
-    protected Set<String> allExchangeAddresses;
-    protected Set<String> tradesIdAlreadyProcessed;
+    protected List<ExchangeToExchangePayment> detectedPayments = new ArrayList<>();
+
+    protected BitSet tradesIdAlreadyProcessed;
 
     protected double rate;
 
@@ -41,7 +40,7 @@ public abstract class XrapidCorridors {
     protected long buyDelta;
     protected long sellDelta;
 
-    public XrapidCorridors(ExchangeToExchangePaymentService exchangeToExchangePaymentService, XrapidInboundAddressService xrapidInboundAddressService, SimpMessageSendingOperations messagingTemplate, List<Exchange> exchangesToExclude, Set<String> usedTradeIds) {
+    public XrapidCorridors(ExchangeToExchangePaymentService exchangeToExchangePaymentService, XrapidInboundAddressService xrapidInboundAddressService, SimpMessageSendingOperations messagingTemplate, List<Exchange> exchangesToExclude, BitSet usedTradeIds) {
 
         this.buyDelta = 200;
         this.sellDelta = 200;
@@ -56,47 +55,53 @@ public abstract class XrapidCorridors {
         this.messagingTemplate = messagingTemplate;
 
         if (usedTradeIds == null) {
-            this.tradesIdAlreadyProcessed = new HashSet<>();
+            this.tradesIdAlreadyProcessed = new BitSet();
         } else {
             this.tradesIdAlreadyProcessed = usedTradeIds;
         }
-
-        allExchangeAddresses = Arrays.stream(Exchange.values()).map(e -> e.getAddresses()).flatMap(Arrays::stream)
-                .collect(Collectors.toSet());
     }
 
     public abstract Exchange getDestinationExchange();
 
     public abstract SpottedAt getSpottedAt();
 
-    protected ExchangeToExchangePayment mapPayment(Payment payment) {
-        try {
-            Exchange source = Exchange.byAddress(payment.getSource());
-            Exchange destination = Exchange.byAddress(payment.getDestination());
-            boolean xrapidCorridorConfirmed = source.isConfirmed() && destination.isConfirmed();
-
-            OffsetDateTime dateTime = OffsetDateTime.parse(payment.getExecutedTime(), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-
-            return ExchangeToExchangePayment.builder()
-                    .amount(payment.getDeliveredAmount())
-                    .destination(Exchange.byAddress(payment.getDestination()))
-                    .source(Exchange.byAddress(payment.getSource()))
-                    .sourceAddress(payment.getSource())
-                    .destinationAddress(payment.getDestination())
-                    .tag(payment.getDestinationTag())
-                    .transactionHash(payment.getTxHash())
-                    .timestamp(dateTime.toEpochSecond() * 1000)
-                    .dateTime(dateTime)
-                    .confirmed(xrapidCorridorConfirmed)
-                    .spottedAt(getSpottedAt())
-                    .build();
-        } catch (Exception e) {
-            return null;
-        }
+    public abstract void searchXrapidPayments(List<OdlCandidatePayment> payments, TradeIndex trades, double rate);
+
+    /**
+     * @return detected payments to save, their transaction hash being claimed by this corridor
+     */
+    public List<ExchangeToExchangePayment> claimPayments() {
+        return detectedPayments.stream()
+                .filter(this::claimPayment)
+                .collect(Collectors.toList());
+    }
+
+    protected ExchangeToExchangePayment mapPayment(OdlCandidatePayment payment) {
+        return mapPayment(payment, payment.getSource());
+    }
+
+    protected ExchangeToExchangePayment mapPayment(OdlCandidatePayment payment, Exchange source) {
+        return ExchangeToExchangePayment.builder()
+                .amount(payment.getAmount())
+                .destination(payment.getDestination())
+                .source(source)
+                .sourceAddress(payment.getSourceAddress())
+                .destinationAddress(payment.getDestinationAddress())
+                .tag(payment.getTag())
+                .transactionHash(payment.getTransactionHash())
+                .timestamp(payment.getTimestamp())
+                .dateTime(payment.getDateTime())
+                .confirmed(payment.isConfirmed())
+                .spottedAt(getSpottedAt())
+                .build();
     }
 
-    protected void persistPayment(ExchangeToExchangePayment exchangeToFiatPayment) {
+    protected boolean claimPayment(ExchangeToExchangePayment exchangeToFiatPayment) {
         try {
+            if (transactionHashes.contains(exchangeToFiatPayment.getTransactionHash())) {
+                return false;
+            }
+
             exchangeToFiatPayment.setUsdValue(exchangeToFiatPayment.getAmount() * rate);
 
             if (exchangeToFiatPayment.getFiatToXrpTrades() != null && !exchangeToFiatPayment.getFiatToXrpTrades().isEmpty()) {
@@ -113,42 +118,16 @@ public abstract class XrapidCorridors {
 
             if (exchangeToFiatPayment.getDestinationFiat() != null &&
                     exchangeToFiatPayment.getDestinationFiat().equals(exchangeToFiatPayment.getSourceFiat())) {
-                return;
+                return false;
             }
 
             transactionHashes.add(exchangeToFiatPayment.getTransactionHash());
 
-            if (exchangeToExchangePaymentService.save(exchangeToFiatPayment)) {
-                if (SpottedAt.SOURCE_AND_DESTINATION.equals(exchangeToFiatPayment.getSpottedAt()) && xrapidInboundAddressService != null) {
-                    xrapidInboundAddressService.add(exchangeToFiatPayment);
-                    log.info("{}:{} added as ODL destination candidate.", exchangeToFiatPayment.getDestinationAddress(), exchangeToFiatPayment.getTag());
-                }
-
-
-                notify(exchangeToFiatPayment);
-            }
+            return true;
         } catch (Throwable e) {
             log.error("Erreur persisting {}", exchangeToFiatPayment);
+            return false;
         }
-
-    }
-
-    protected void notify(ExchangeToExchangePayment payment) {
-        log.info("Xrapid payment {} ", payment);
-        messagingTemplate.convertAndSend("/topic/payments", payment);
-    }
-
-
-
-    private Predicate<Trade> filterFiatToXrpTradePerDate(ExchangeToExchangePayment exchangeToExchangePayment) {
-        return trade ->
-                exchangeToExchangePayment.getDateTime().isAfter(trade.getDateTime()) && Math.abs(ChronoUnit.SECONDS.between(exchangeToExchangePayment.getDateTime(), trade.getDateTime())) < buyDelta;
-
-    }
-
-    private Predicate<Trade> filterXrpToFiatTradePerDate(ExchangeToExchangePayment exchangeToExchangePayment) {
-        return trade ->
-            exchangeToExchangePayment.getDateTime().isBefore(trade.getDateTime()) && Math.abs(ChronoUnit.SECONDS.between(trade.getDateTime(), exchangeToExchangePayment.getDateTime())) < buyDelta;
     }
 
     protected boolean xrpToFiatTradesExists(ExchangeToExchangePayment exchangeToExchangePayment) {
@@ -162,30 +141,32 @@ public abstract class XrapidCorridors {
         Arrays.asList(getAggregatedSellTrades(exchangeToExchangePayment, "sell"),
                 getAggregatedSellTrades(exchangeToExchangePayment, "buy")).forEach(aggregatedTrades -> {
 
-            if (!aggregatedTrades.isEmpty()) {
-                List<Trade> closestTrades = TradesCombinaisonsHelper.getTrades(aggregatedTrades, exchangeToExchangePayment.getAmount());
+            if (aggregatedTrades.length > 0) {
+                int[] closestTrades = TradesCombinaisonsHelper.getTrades(trades.getBatch(), aggregatedTrades, exchangeToExchangePayment.getAmount());
 
-                double sum = closestTrades.stream().mapToDouble(Trade::getAmount).sum();
+                double sum = TradesCombinaisonsHelper.sum(trades.getBatch(), closestTrades);
 
                 if (sum > 0) {
+                    List<Trade> xrpToFiatTrades = trades.getBatch().trades(closestTrades);
 
-                    exchangeToExchangePayment.setXrpToFiatTrades(closestTrades);
-                    exchangeToExchangePayment.setXrpToFiatTradeIds(closestTrades.stream().map(Trade::getOrderId).collect(Collectors.toList()));
+                    exchangeToExchangePayment.setXrpToFiatTrades(xrpToFiatTrades);
+                    exchangeToExchangePayment.setXrpToFiatTradeIds(xrpToFiatTrades.stream().map(Trade::getOrderId).collect(Collectors.toList()));
 
-                    String tradeIds = closestTrades.stream().map(Trade::getOrderId).collect(Collectors.joining(";"));
+                    String tradeIds = xrpToFiatTrades.stream().map(Trade::getOrderId).collect(Collectors.joining(";"));
                     exchangeToExchangePayment.setInTradeFound(true);
                     exchangeToExchangePayment.setTradeIds(tradeIds);
 
-                    tradesIdAlreadyProcessed.addAll(closestTrades.stream().map(Trade::getOrderId).collect(Collectors.toList()));
+                    markAsProcessed(closestTrades);
                 }
             }
         });
 
         if (!exchangeToExchangePayment.isInTradeFound() && SpottedAt.SOURCE_AND_DESTINATION.equals(getSpottedAt())) {
             exchangeToExchangePayment.getFiatToXrpTrades().stream()
-                    .map(Trade::getOrderId).forEach(orderId -> {
-                tradesIdAlreadyProcessed.remove(orderId);
-            });
+                    .map(Trade::getOrderId)
+                    .mapToInt(trades.getBatch()::handleOf)
+                    .filter(orderId -> orderId != TradeBatch.NO_ORDER_ID)
+                    .forEach(tradesIdAlreadyProcessed::clear);
         }
 
         return exchangeToExchangePayment.isInTradeFound();
@@ -199,21 +180,22 @@ public abstract class XrapidCorridors {
 
         Arrays.asList(getAggregatedBuyTrades(exchangeToExchangePayment, "sell"),
                 getAggregatedBuyTrades(exchangeToExchangePayment, "buy")).forEach(aggregatedTrades -> {
-            if (!aggregatedTrades.isEmpty()) {
+            if (aggregatedTrades.length > 0) {
 
-                List<Trade> closestTrades = TradesCombinaisonsHelper.getTrades(aggregatedTrades, exchangeToExchangePayment.getAmount());
+                int[] closestTrades = TradesCombinaisonsHelper.getTrades(trades.getBatch(), aggregatedTrades, exchangeToExchangePayment.getAmount());
 
-                double sum = closestTrades.stream().mapToDouble(Trade::getAmount).sum();
+                double sum = TradesCombinaisonsHelper.sum(trades.getBatch(), closestTrades);
 
                 if (sum > 0 ) {
+                    List<Trade> fiatToXrpTrades = trades.getBatch().trades(closestTrades);
 
-                    exchangeToExchangePayment.setFiatToXrpTrades(closestTrades);
-                    exchangeToExchangePayment.setFiatToXrpTradeIds(closestTrades.stream().map(Trade::getOrderId).collect(Collectors.toList()));
-                    String tradeIds = closestTrades.stream().map(Trade::getOrderId).collect(Collectors.joining(";"));
+                    exchangeToExchangePayment.setFiatToXrpTrades(fiatToXrpTrades);
+                    exchangeToExchangePayment.setFiatToXrpTradeIds(fiatToXrpTrades.stream().map(Trade::getOrderId).collect(Collectors.toList()));
+                    String tradeIds = fiatToXrpTrades.stream().map(Trade::getOrderId).collect(Collectors.joining(";"));
                     exchangeToExchangePayment.setOutTradeFound(true);
                     exchangeToExchangePayment.setTradeOutIds(tradeIds);
 
-                    tradesIdAlreadyProcessed.addAll(closestTrades.stream().map(Trade::getOrderId).collect(Collectors.toList()));
+                    markAsProcessed(closestTrades);
                 }
             }
         });
@@ -221,42 +203,44 @@ public abstract class XrapidCorridors {
         return exchangeToExchangePayment.isOutTradeFound();
     }
 
-    protected void submit(List<Payment> payments) {
+    protected void submit(List<OdlCandidatePayment> payments) {
 
         if (payments.isEmpty()) {
             return;
         }
 
         payments.stream()
-                .map(this::mapPayment)
                 .filter(payment -> !transactionHashes.contains(payment.getTransactionHash()))
+                .filter(payment -> getDestinationExchange().equals(payment.getDestination()))
+                .map(this::mapPayment)
                 .filter(this::xrpToFiatTradesExists)
                 .sorted(Comparator.comparing(ExchangeToExchangePayment::getDateTime))
-                .forEach(this::persistPayment);
+                .forEach(detectedPayments::add);
     }
 
 
-    protected List<Trade> getAggregatedSellTrades(ExchangeToExchangePayment exchangeToExchangePayment, String side) {
+    protected int[] getAggregatedSellTrades(ExchangeToExchangePayment exchangeToExchangePayment, String side) {
 
-        return trades.stream()
-                .filter(trade -> trade.getOrderId() != null)
-                .filter(trade -> side.equals(trade.getSide()))
-                .filter(trade -> getDestinationExchange().equals(exchangeToExchangePayment.getDestination()))
-                .filter(trade -> trade.getExchange().equals(getDestinationExchange()))
-                .filter(filterXrpToFiatTradePerDate(exchangeToExchangePayment))
-                .filter(trade -> !tradesIdAlreadyProcessed.contains(trade.getOrderId()))
-                .collect(Collectors.toList());
+        if (!getDestinationExchange().equals(exchangeToExchangePayment.getDestination())) {
+            return new int[0];
+        }
+
+        long paymentTimestamp = exchangeToExchangePayment.getTimestamp();
+
+        return trades.select(getDestinationExchange(), side, paymentTimestamp, paymentTimestamp + buyDelta * 1000, tradesIdAlreadyProcessed);
 
     }
 
-    protected List<Trade> getAggregatedBuyTrades(ExchangeToExchangePayment exchangeToExchangePayment, String side) {
+    protected int[] getAggregatedBuyTrades(ExchangeToExchangePayment exchangeToExchangePayment, String side) {
 
-        return trades.stream()
-                .filter(trade -> trade.getOrderId() != null)
-                .filter(trade -> side.equals(trade.getSide()))
-                .filter(trade -> trade.getExchange().equals(exchangeToExchangePayment.getSource()))
-                .filter(filterFiatToXrpTradePerDate(exchangeToExchangePayment))
-                .filter(trade -> !tradesIdAlreadyProcessed.contains(trade.getOrderId()))
-                .collect(Collectors.toList());
+        long paymentTimestamp = exchangeToExchangePayment.getTimestamp();
+
+        return trades.select(exchangeToExchangePayment.getSource(), side, paymentTimestamp - buyDelta * 1000, paymentTimestamp, tradesIdAlreadyProcessed);
+    }
+
+    private void markAsProcessed(int[] positions) {
+        for (int position : positions) {
+            tradesIdAlreadyProcessed.set(trades.getBatch().orderId(position));
+        }
     }
 }
@@ -3,17 +3,14 @@ package space.xrapid.listener.endtoend;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import space.xrapid.domain.*;
-import space.xrapid.domain.ripple.Payment;
 import space.xrapid.listener.XrapidCorridors;
 import space.xrapid.service.ExchangeToExchangePaymentService;
 import space.xrapid.service.XrapidInboundAddressService;
+import space.xrapid.util.TradeIndex;
 
-import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.BitSet;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import static space.xrapid.job.Scheduler.transactionHashes;
 
@@ -36,7 +33,7 @@ public class EndToEndXrapidCorridors extends XrapidCorridors {
 
 
     public EndToEndXrapidCorridors(ExchangeToExchangePaymentService exchangeToExchangePaymentService, XrapidInboundAddressService xrapidInboundAddressService,
-                                   SimpMessageSendingOperations messagingTemplate, Exchange destinationExchange, Currency sourceFiat, long buyDelta, long sellDelta, boolean requireEndToEnd, Set<String> tradeIds) {
+                                   SimpMessageSendingOperations messagingTemplate, Exchange destinationExchange, Currency sourceFiat, long buyDelta, long sellDelta, boolean requireEndToEnd, BitSet tradeIds) {
 
         super(exchangeToExchangePaymentService, xrapidInboundAddressService, messagingTemplate, null, tradeIds);
 
@@ -50,10 +47,11 @@ public class EndToEndXrapidCorridors extends XrapidCorridors {
         this.destinationExchange = destinationExchange;
     }
 
-    public void searchXrapidPayments(List<Payment> payments, List<Trade> trades, double rate) {
+    @Override
+    public void searchXrapidPayments(List<OdlCandidatePayment> payments, TradeIndex trades, double rate) {
         this.rate = rate;
 
-        tradesIdAlreadyProcessed = new HashSet<>();
+        tradesIdAlreadyProcessed = new BitSet();
 
         this.trades = trades;
         submit(payments);
@@ -65,7 +63,7 @@ public class EndToEndXrapidCorridors extends XrapidCorridors {
     }
 
     @Override
-    protected void submit(List<Payment> payments) {
+    protected void submit(List<OdlCandidatePayment> payments) {
 
         if (payments.isEmpty()) {
             return;
@@ -73,48 +71,27 @@ public class EndToEndXrapidCorridors extends XrapidCorridors {
 
         if (requireEndToEnd) {
             payments.stream()
-                    .map(this::mapPayment)
                     .filter(payment -> !transactionHashes.contains(payment.getTransactionHash()))
+                    .filter(payment -> this.getDestinationExchange().equals(payment.getDestination()))
+                    .map(this::mapPayment)
                     .filter(payment -> fiatToXrpTradesExists(payment) && xrpToFiatTradesExists(payment))
                     .sorted(Comparator.comparing(ExchangeToExchangePayment::getTimestamp))
-                    .forEach(payment -> persistPayment(payment));
+                    .forEach(detectedPayments::add);
 
         } else {
             payments.stream()
-                    .map(this::mapPayment)
                     .filter(payment -> this.getDestinationExchange().equals(payment.getDestination()))
+                    .map(this::mapPayment)
                     .peek(payment -> payment.setSourceFiat(this.sourceFiat))
                     .filter(xrapidInboundAddressService::isXrapidDestination)
                     .peek(payment -> payment.setSpottedAt(SpottedAt.DESTINATION_TAG))
                     .sorted(Comparator.comparing(ExchangeToExchangePayment::getTimestamp))
-                    .forEach(payment -> persistPayment(payment));
+                    .forEach(detectedPayments::add);
         }
     }
 
     @Override
-    protected ExchangeToExchangePayment mapPayment(Payment payment) {
-        try {
-            Exchange source = Exchange.byAddress(payment.getSource());
-            Exchange destination = Exchange.byAddress(payment.getDestination());
-            boolean xrapidCorridorConfirmed = source.isConfirmed() && destination.isConfirmed();
-
-            OffsetDateTime dateTime = OffsetDateTime.parse(payment.getExecutedTime(), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-
-            return ExchangeToExchangePayment.builder()
-                    .amount(payment.getDeliveredAmount())
-                    .destination(Exchange.byAddress(payment.getDestination()))
-                    .source(Exchange.byAddress(payment.getSource(), getSourceFiat()))
-                    .sourceAddress(payment.getSource())
-                    .destinationAddress(payment.getDestination())
-                    .tag(payment.getDestinationTag())
-                    .transactionHash(payment.getTxHash())
-                    .timestamp(dateTime.toEpochSecond() * 1000)
-                    .dateTime(dateTime)
-                    .confirmed(xrapidCorridorConfirmed)
-                    .spottedAt(getSpottedAt())
-                    .build();
-        } catch (Exception e) {
-            return null;
-        }
+    protected ExchangeToExchangePayment mapPayment(OdlCandidatePayment payment) {
+        return mapPayment(payment, Exchange.byAddress(payment.getSourceAddress(), getSourceFiat()));
     }
 }
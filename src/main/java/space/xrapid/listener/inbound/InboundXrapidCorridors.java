@@ -3,13 +3,13 @@ package space.xrapid.listener.inbound;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import space.xrapid.domain.Exchange;
+import space.xrapid.domain.OdlCandidatePayment;
 import space.xrapid.domain.SpottedAt;
-import space.xrapid.domain.Trade;
-import space.xrapid.domain.ripple.Payment;
 import space.xrapid.listener.XrapidCorridors;
 import space.xrapid.service.ExchangeToExchangePaymentService;
+import space.xrapid.util.TradeIndex;
 
-import java.util.HashSet;
+import java.util.BitSet;
 import java.util.List;
 
 @Slf4j
@@ -22,13 +22,14 @@ public class InboundXrapidCorridors extends XrapidCorridors {
         this.destinationExchange = destinationExchange;
     }
 
-    public void searchXrapidPayments(List<Payment> payments, List<Trade> trades, double rate) {
+    @Override
+    public void searchXrapidPayments(List<OdlCandidatePayment> payments, TradeIndex trades, double rate) {
 
         this.rate = rate;
 
         this.trades = trades;
 
-        tradesIdAlreadyProcessed = new HashSet<>();
+        tradesIdAlreadyProcessed = new BitSet();
 
         submit(payments);
     }
@@ -4,12 +4,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.scheduling.annotation.Async;
 import space.xrapid.domain.Exchange;
+import space.xrapid.domain.OdlCandidatePayment;
 import space.xrapid.domain.ExchangeToExchangePayment;
 import space.xrapid.domain.SpottedAt;
-import space.xrapid.domain.Trade;
-import space.xrapid.domain.ripple.Payment;
 import space.xrapid.listener.XrapidCorridors;
 import space.xrapid.service.ExchangeToExchangePaymentService;
+import space.xrapid.util.TradeIndex;
 
 import java.util.Comparator;
 import java.util.List;
@@ -27,7 +27,8 @@ public class OutboundXrapidCorridors extends XrapidCorridors {
     }
 
     @Async
-    public void searchXrapidPayments(List<Payment> payments, List<Trade> trades, double rate) {
+    @Override
+    public void searchXrapidPayments(List<OdlCandidatePayment> payments, TradeIndex trades, double rate) {
         this.rate = rate;
         this.trades = trades;
 
@@ -35,18 +36,18 @@ public class OutboundXrapidCorridors extends XrapidCorridors {
     }
 
     @Override
-    protected void submit(List<Payment> payments) {
+    protected void submit(List<OdlCandidatePayment> payments) {
 
         if (payments.isEmpty()) {
             return;
         }
 
         payments.stream()
-                .map(this::mapPayment)
                 .filter(payment -> !transactionHashes.contains(payment.getTransactionHash()))
+                .map(this::mapPayment)
                 .filter(this::fiatToXrpTradesExists)
                 .sorted(Comparator.comparing(ExchangeToExchangePayment::getDateTime))
-                .forEach(this::persistPayment);
+                .forEach(detectedPayments::add);
     }
 
     @Override
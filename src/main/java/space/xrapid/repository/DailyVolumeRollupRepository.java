@@ -0,0 +1,22 @@
+package space.xrapid.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import space.xrapid.domain.Currency;
+import space.xrapid.domain.DailyVolume;
+import space.xrapid.domain.DailyVolumeRollup;
+
+import java.util.List;
+
+@Repository
+public interface DailyVolumeRollupRepository extends JpaRepository<DailyVolumeRollup, Integer> {
+
+    DailyVolumeRollup getByEpochDayAndSourceFiatAndDestinationFiat(long epochDay, Currency sourceFiat, Currency destinationFiat);
+
+    @Query(value = "SELECT dv.epoch_day AS day, SUM(dv.volume) AS volume FROM daily_volume dv WHERE dv.epoch_day >= ? AND dv.epoch_day <= ? GROUP BY dv.epoch_day", nativeQuery = true)
+    List<DailyVolume> getDailyVolumesBetween(long startEpochDay, long endEpochDay);
+
+    @Query(value = "SELECT SUM(dv.volume) FROM daily_volume dv", nativeQuery = true)
+    Double getAllTimeVolume();
+}
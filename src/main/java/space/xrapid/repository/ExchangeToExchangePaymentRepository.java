@@ -1,27 +1,40 @@
 package space.xrapid.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import space.xrapid.domain.CorridorDailyVolume;
+import space.xrapid.domain.Currency;
 import space.xrapid.domain.ExchangeToExchangePayment;
+import space.xrapid.domain.PaymentSummary;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ExchangeToExchangePaymentRepository extends CrudRepository<ExchangeToExchangePayment,Integer>, JpaSpecificationExecutor<ExchangeToExchangePayment> {
 
-    @Query(value = "SELECT * FROM exchange_payment ORDER BY date_time DESC LIMIT ?", nativeQuery = true)
-    List<ExchangeToExchangePayment> findTop(int limit);
+    String PAYMENTS_AFTER = "SELECT ep FROM EXCHANGE_PAYMENT ep WHERE ep.timestamp >= :from AND ep.timestamp <= :to " +
+            "AND (:source IS NULL OR ep.sourceFiat = :source) AND (:destination IS NULL OR ep.destinationFiat = :destination) " +
+            "AND (ep.timestamp > :afterTimestamp OR (ep.timestamp = :afterTimestamp AND ep.id > :afterId)) " +
+            "ORDER BY ep.timestamp, ep.id";
 
-    @Query(value = "SELECT * FROM exchange_payment WHERE in_trade_found IS TRUE OR out_trade_found IS TRUE ORDER BY date_time DESC LIMIT ?", nativeQuery = true)
-    List<ExchangeToExchangePayment> findTopWithTrades(int limit);
+    @Query("SELECT new space.xrapid.domain.PaymentSummary(ep.timestamp, ep.dateTime, ep.amount, ep.usdValue, ep.source, ep.destination, " +
+            "ep.sourceFiat, ep.destinationFiat, ep.tag, ep.transactionHash, ep.tradeIds, ep.tradeOutIds) FROM EXCHANGE_PAYMENT ep ORDER BY ep.timestamp DESC")
+    List<PaymentSummary> findLastSummaries(Pageable pageable);
 
-    @Query(value = "SELECT SUM(ep.usd_value) FROM exchange_payment ep", nativeQuery = true)
-    Double getAllTimeVolume();
+    @Query(value = "SELECT * FROM exchange_payment WHERE in_trade_found IS TRUE OR out_trade_found IS TRUE ORDER BY timestamp DESC LIMIT ?", nativeQuery = true)
+    List<ExchangeToExchangePayment> findTopWithTrades(int limit);
 
-    @Query(value = "SELECT SUM(ep.usd_value) FROM exchange_payment ep WHERE ep.timestamp >= ? AND ep.timestamp <= ?", nativeQuery = true)
-    Double getVolumeBetween(long startTimestamp, long endTimestamp);
+    @Query(value = "SELECT MIN(ep.timestamp) FROM exchange_payment ep", nativeQuery = true)
+    Long getFirstTimestamp();
 
     @Query(value = "SELECT * FROM exchange_payment ep WHERE ep.timestamp >= ? AND ep.timestamp <= ?", nativeQuery = true)
     List<ExchangeToExchangePayment> findByDate(long startTimestamp, long endTimestamp);
@@ -29,13 +42,22 @@ public interface ExchangeToExchangePaymentRepository extends CrudRepository<Exch
     @Query(value = "SELECT SUM(ep.usd_value) FROM exchange_payment ep WHERE ep.source = ? AND ep.destination = ? AND ep.timestamp >= ? AND ep.timestamp <= ?", nativeQuery = true)
     Double getVolumeBySourceAndDestinationBetween(String source, String destination, long startTimestamp, long endTimestamp);
 
-    @Query(value = "SELECT SUM(ep.usd_value) FROM exchange_payment ep WHERE ep.source_fiat = ? AND ep.destination_fiat = ? AND ep.timestamp >= ? AND ep.timestamp <= ?", nativeQuery = true)
-    Double getVolumeBySourceFiatAndDestinationFiatBetween(String source, String destination, long startTimestamp, long endTimestamp);
-
-    @Query(value = "SELECT * FROM exchange_payment ORDER BY date_time ASC LIMIT 1", nativeQuery = true)
-    ExchangeToExchangePayment getFirstOdl();
-
-    boolean existsByTransactionHash(String transactionHash);
+    @Query(value = "SELECT FLOOR(ep.timestamp / 86400000) AS day, ep.source_fiat AS sourceFiat, ep.destination_fiat AS destinationFiat, " +
+            "SUM(ep.usd_value) AS volume, COUNT(*) AS paymentCount FROM exchange_payment ep " +
+            "GROUP BY FLOOR(ep.timestamp / 86400000), ep.source_fiat, ep.destination_fiat", nativeQuery = true)
+    List<CorridorDailyVolume> getCorridorDailyVolumes();
+
+    @Query(PAYMENTS_AFTER)
+    List<ExchangeToExchangePayment> findPaymentsAfter(@Param("from") long from, @Param("to") long to,
+                                                      @Param("source") Currency source, @Param("destination") Currency destination,
+                                                      @Param("afterTimestamp") long afterTimestamp, @Param("afterId") int afterId,
+                                                      Pageable pageable);
+
+    @Query(PAYMENTS_AFTER)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<ExchangeToExchangePayment> streamPaymentsAfter(@Param("from") long from, @Param("to") long to,
+                                                          @Param("source") Currency source, @Param("destination") Currency destination,
+                                                          @Param("afterTimestamp") long afterTimestamp, @Param("afterId") int afterId);
 
     ExchangeToExchangePayment getByTransactionHash(String transactionHash);
 }
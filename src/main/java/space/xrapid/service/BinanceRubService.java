@@ -1,17 +1,16 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
-import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,17 +18,16 @@ public class BinanceRubService implements TradeService {
 
     private String apiUrl = "https://api.binance.com/api/v3/trades?symbol=XRPRUB&limit=1000";
 
-    @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-        HttpEntity<String> entity = getEntity();
-
-        ResponseEntity<space.xrapid.domain.binance.Trade[]> response = restTemplate.exchange(apiUrl,
-                HttpMethod.GET, entity, space.xrapid.domain.binance.Trade[].class);
+    @Autowired
+    private JsonHttpClient httpClient;
 
-        return Arrays.stream(response.getBody())
-                .map(this::mapTrade)
-                .filter(filterTradePerDate(begin))
-                .collect(Collectors.toList());
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        return httpClient.get(apiUrl, space.xrapid.domain.binance.Trade[].class)
+                .thenApply(trades -> Arrays.stream(trades)
+                        .map(this::mapTrade)
+                        .filter(filterTradePerDate(begin))
+                        .collect(Collectors.toList()));
     }
 
     @Override
@@ -39,7 +37,7 @@ public class BinanceRubService implements TradeService {
 
     private Trade mapTrade(space.xrapid.domain.binance.Trade trade) {
 
-        OffsetDateTime date = OffsetDateTime.ofInstant(Instant.ofEpochMilli(trade.getTime()), ZoneId.of("UTC"));
+        OffsetDateTime date = TradeTimestamps.ofEpochMilli(trade.getTime());
 
         return Trade.builder().amount(trade.getQty())
                 .exchange(Exchange.BINANCE_RUB)
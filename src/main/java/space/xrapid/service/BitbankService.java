@@ -1,19 +1,18 @@
 package space.xrapid.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
 import space.xrapid.domain.bitbank.Transaction;
 import space.xrapid.domain.bitbank.Transactions;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
-import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.time.ZoneId;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 
@@ -23,18 +22,17 @@ public class BitbankService implements TradeService {
 
     private String apiUrl = "https://public.bitbank.cc/xrp_jpy/transactions";
 
+    @Autowired
+    private JsonHttpClient httpClient;
 
-    @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-        HttpEntity<String> entity = getEntity();
-
-        ResponseEntity<Transactions> response = restTemplate.exchange(apiUrl,
-                HttpMethod.GET, entity, Transactions.class);
 
-        return response.getBody().getData().getTransactions().stream()
-                .map(this::mapTrade)
-                .filter(filterTradePerDate(begin))
-                .collect(Collectors.toList());
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        return httpClient.get(apiUrl, Transactions.class)
+                .thenApply(response -> response.getData().getTransactions().stream()
+                        .map(this::mapTrade)
+                        .filter(filterTradePerDate(begin))
+                        .collect(Collectors.toList()));
     }
 
     @Override
@@ -44,7 +42,7 @@ public class BitbankService implements TradeService {
 
     private Trade mapTrade(Transaction trade) {
 
-        OffsetDateTime date = OffsetDateTime.ofInstant(Instant.ofEpochSecond(Long.valueOf(trade.getExecutedAt() / 1000)), ZoneId.of("UTC"));
+        OffsetDateTime date = TradeTimestamps.ofEpochSecond(Long.valueOf(trade.getExecutedAt() / 1000));
 
         return Trade.builder()
                 .side(trade.getSide())
@@ -1,54 +1,89 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
 import space.xrapid.domain.bitcointrade.Response;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
 import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Service
 public class BitcoinTradeService implements TradeService {
 
-    private String url = "https://api.bitcointrade.com.br/v2/public/BRLXRP/trades?start_time={start_time}&page_size=1000&current_page={current_page}";
-
-    @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
+    private static final int MAX_PAGES_IN_FLIGHT = 4;
 
-        HttpEntity entity = getEntity();
+    private String url = "https://api.bitcointrade.com.br/v2/public/BRLXRP/trades?start_time={start_time}&page_size=1000&current_page={current_page}";
 
-        Integer currentPage = 1;
+    @Autowired
+    private JsonHttpClient httpClient;
 
-        boolean remainingTrades = true;
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        return fetchPage(begin, 1).thenCompose(firstPage -> {
+            int totalPages = firstPage.getData().getPagination().getTotalPages();
+
+            Map<Integer, List<Trade>> pages = new ConcurrentHashMap<>();
+            pages.put(1, mapTrades(begin, firstPage));
+
+            AtomicInteger nextPage = new AtomicInteger(2);
+
+            CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.max(0, Math.min(MAX_PAGES_IN_FLIGHT, totalPages - 1))];
+            for (int i = 0; i < lanes.length; i++) {
+                lanes[i] = fetchRemainingPages(begin, nextPage, totalPages, pages);
+            }
+
+            return CompletableFuture.allOf(lanes).thenApply(done -> {
+                List<Trade> trades = new ArrayList<>();
+                for (int page = 1; page <= totalPages; page++) {
+                    trades.addAll(pages.getOrDefault(page, Collections.emptyList()));
+                }
+                return trades;
+            });
+        });
+    }
 
-        List<Trade> trades = new ArrayList<>();
+    /**
+     * Fetches pages one after the other until none is left, several lanes sharing the page counter
+     * so that at most {@link #MAX_PAGES_IN_FLIGHT} requests are in flight.
+     */
+    private CompletableFuture<Void> fetchRemainingPages(OffsetDateTime begin, AtomicInteger nextPage, int totalPages, Map<Integer, List<Trade>> pages) {
+        int page = nextPage.getAndIncrement();
 
-        while (remainingTrades) {
-            ResponseEntity<Response> response = restTemplate.exchange(url
-                            .replace("{start_time}", convertDateForUrl(begin))
-                            .replace("{current_page}", currentPage.toString()),
-                    HttpMethod.GET, entity, Response.class);
+        if (page > totalPages) {
+            return CompletableFuture.completedFuture(null);
+        }
 
-            trades.addAll(
-                    response.getBody().getData().getTrades().stream()
-                            .map(this::mapTrade)
-                            .filter(filterTradePerDate(begin))
-                            .collect(Collectors.toList())
-            );
+        return fetchPage(begin, page)
+                .thenCompose(response -> {
+                    pages.put(page, mapTrades(begin, response));
+                    return fetchRemainingPages(begin, nextPage, totalPages, pages);
+                });
+    }
 
-            remainingTrades = currentPage < response.getBody().getData().getPagination().getTotalPages();
+    private CompletableFuture<Response> fetchPage(OffsetDateTime begin, Integer currentPage) {
+        String pageUrl = url
+                .replace("{start_time}", convertDateForUrl(begin))
+                .replace("{current_page}", currentPage.toString());
 
-            currentPage++;
-        }
+        return httpClient.get(pageUrl, Response.class);
+    }
 
-        return trades;
+    private List<Trade> mapTrades(OffsetDateTime begin, Response response) {
+        return response.getData().getTrades().stream()
+                .map(this::mapTrade)
+                .filter(filterTradePerDate(begin))
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -57,13 +92,11 @@ public class BitcoinTradeService implements TradeService {
     }
 
     private Trade mapTrade(space.xrapid.domain.bitcointrade.Trade trade) {
-        String stringDate = transformDate(trade.getDate());
-        OffsetDateTime date = OffsetDateTime.parse(stringDate, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-
+        long timestamp = TradeTimestamps.parseTruncatedEpochMilli(trade.getDate());
 
         return Trade.builder()
-                .dateTime(date)
-                .timestamp(date.toEpochSecond() * 1000)
+                .dateTime(TradeTimestamps.ofEpochMilli(timestamp))
+                .timestamp(timestamp)
                 .amount(trade.getAmount())
                 .exchange(Exchange.BITCOIN_TRADE)
                 .rate(trade.getUnitPrice())
@@ -75,8 +108,4 @@ public class BitcoinTradeService implements TradeService {
     private String convertDateForUrl(OffsetDateTime date) {
         return date.toString().replaceAll("\\.[0-9]{3}Z", "-00:00");
     }
-
-    private String transformDate(String date) {
-        return date.replaceAll("\\..+", "+00:00");
-    }
 }
@@ -1,17 +1,16 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
 import space.xrapid.domain.bitkub.Trades;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
-import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.time.ZoneId;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,18 +18,16 @@ public class BitkubService implements TradeService {
 
     private String apiUrl = "https://api.bitkub.com/api/market/trades?sym=THB_XRP&lmt=10000";
 
-    @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-        HttpEntity<String> entity = getEntity();
-
-        ResponseEntity<Trades> response = restTemplate.exchange(apiUrl,
-                HttpMethod.GET, entity, Trades.class);
+    @Autowired
+    private JsonHttpClient httpClient;
 
-
-        return response.getBody().getResult().stream()
-                .map(this::mapTrade)
-                .filter(filterTradePerDate(begin))
-                .collect(Collectors.toList());
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        return httpClient.get(apiUrl, Trades.class)
+                .thenApply(response -> response.getResult().stream()
+                        .map(this::mapTrade)
+                        .filter(filterTradePerDate(begin))
+                        .collect(Collectors.toList()));
     }
 
     @Override
@@ -40,7 +37,7 @@ public class BitkubService implements TradeService {
 
     private Trade mapTrade(List<String> trade) {
 
-        OffsetDateTime date = OffsetDateTime.ofInstant(Instant.ofEpochSecond(Long.valueOf(trade.get(0))), ZoneId.of("UTC"));
+        OffsetDateTime date = TradeTimestamps.ofEpochSecond(Long.valueOf(trade.get(0)));
 
 
         return Trade.builder()
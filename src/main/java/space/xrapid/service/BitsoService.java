@@ -1,19 +1,21 @@
 package space.xrapid.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
+import space.xrapid.domain.TradeCursor;
 import space.xrapid.domain.bitso.BitsoXrpTrades;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -23,55 +25,80 @@ public class BitsoService implements TradeService {
 
     private String url = "https://api.bitso.com/v3/trades/?book=xrp_mxn&sort=desc&limit=100";
 
-    private DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+    private String ascendingUrl = "https://api.bitso.com/v3/trades/?book=xrp_mxn&sort=asc&limit=100&marker={marker}";
 
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-        List<Trade> payments = new ArrayList<>();
-        List<Trade> currentPayments = new ArrayList<>();
+    @Autowired
+    private JsonHttpClient httpClient;
 
-        HttpEntity<String> entity = getEntity();
-
-        ResponseEntity<BitsoXrpTrades> response = restTemplate.exchange(url,
-                HttpMethod.GET, entity, BitsoXrpTrades.class);
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        return fetchTrades(begin, url);
+    }
 
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin, TradeCursor cursor) {
+        return fetchTradesAfter(begin, cursor.getOrderId());
+    }
 
-        if (response.getBody().getSuccess() && response.getBody() != null) {
-            currentPayments = getTrades(begin, response);
+    /**
+     * The next page is requested as soon as its marker is known, the current page being mapped
+     * while that request is in flight.
+     */
+    private CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin, String pageUrl) {
+        return httpClient.get(pageUrl, BitsoXrpTrades.class)
+                .thenCompose(response -> {
+                    if (!response.getSuccess()) {
+                        return CompletableFuture.completedFuture(new ArrayList<>());
+                    }
+
+                    List<space.xrapid.domain.bitso.Trade> recentTrades = response.getPayment().stream()
+                            .filter(filterBitsoTradePerDate(begin))
+                            .collect(Collectors.toList());
+
+                    CompletableFuture<List<Trade>> nextPage = recentTrades.size() < 100
+                            ? CompletableFuture.completedFuture(new ArrayList<>())
+                            : fetchTrades(begin, url + "&marker=" + getMarker(recentTrades));
+
+                    List<Trade> trades = getTrades(begin, response);
+
+                    return nextPage.thenApply(nextTrades -> concat(trades, nextTrades));
+                });
+    }
 
-            payments.addAll(currentPayments);
-        }
+    private CompletableFuture<List<Trade>> fetchTradesAfter(OffsetDateTime begin, String marker) {
+        return httpClient.get(ascendingUrl.replace("{marker}", marker), BitsoXrpTrades.class)
+                .thenCompose(response -> {
+                    if (!response.getSuccess() || response.getPayment().isEmpty()) {
+                        return CompletableFuture.completedFuture(new ArrayList<>());
+                    }
 
-        Integer marker;
+                    List<space.xrapid.domain.bitso.Trade> page = response.getPayment();
 
-        while (currentPayments.size() == 100) {
-            marker = getMarker(begin, response);
+                    CompletableFuture<List<Trade>> nextPage = page.size() < 100
+                            ? CompletableFuture.completedFuture(new ArrayList<>())
+                            : fetchTradesAfter(begin, page.get(page.size() - 1).getTid().toString());
 
-            if (marker == null) {
-                break;
-            }
-            response = restTemplate.exchange(url + "&marker=" + marker,
-                    HttpMethod.GET, entity, BitsoXrpTrades.class);
+                    List<Trade> trades = getTrades(begin, response);
 
-            if (response.getBody().getSuccess() && response.getBody() != null) {
-                currentPayments = getTrades(begin, response);
-                payments.addAll(currentPayments);
-            }
-        }
+                    return nextPage.thenApply(nextTrades -> concat(trades, nextTrades));
+                });
+    }
 
-        return payments;
+    private List<Trade> concat(List<Trade> trades, List<Trade> nextTrades) {
+        List<Trade> all = new ArrayList<>(trades.size() + nextTrades.size());
+        all.addAll(trades);
+        all.addAll(nextTrades);
+        return all;
     }
 
-    private Integer getMarker(OffsetDateTime begin, ResponseEntity<BitsoXrpTrades> response) {
-        return response.getBody().getPayment().stream()
-                .filter(filterBitsoTradePerDate(begin))
+    private Integer getMarker(List<space.xrapid.domain.bitso.Trade> trades) {
+        return trades.stream()
                 .map(space.xrapid.domain.bitso.Trade::getTid)
-                .sorted()
-                .findFirst()
+                .min(Comparator.naturalOrder())
                 .orElse(null);
     }
 
-    private List<Trade> getTrades(OffsetDateTime begin, ResponseEntity<BitsoXrpTrades> response) {
-        return response.getBody().getPayment().stream()
+    private List<Trade> getTrades(OffsetDateTime begin, BitsoXrpTrades response) {
+        return response.getPayment().stream()
                 .sorted(Comparator.comparing(space.xrapid.domain.bitso.Trade::getCreatedAt))
                 .map(this::mapTrade)
                 .filter(filterTradePerDate(begin))
@@ -79,10 +106,12 @@ public class BitsoService implements TradeService {
     }
 
     private Trade mapTrade(space.xrapid.domain.bitso.Trade trade) {
+        long timestamp = TradeTimestamps.parseEpochMilli(trade.getCreatedAt());
+
         return Trade.builder().amount(Double.valueOf(trade.getAmount()))
                 .exchange(Exchange.BITSO)
-                .timestamp(OffsetDateTime.parse(trade.getCreatedAt().replace("0000", "00:00"), dateTimeFormatter).toEpochSecond() * 1000)
-                .dateTime(OffsetDateTime.parse(trade.getCreatedAt().replace("0000", "00:00"), dateTimeFormatter))
+                .timestamp(timestamp)
+                .dateTime(TradeTimestamps.ofEpochMilli(timestamp))
                 .orderId(trade.getTid().toString())
                 .rate(Double.valueOf(trade.getPrice()))
                 .side(trade.getMakerSide())
@@ -90,7 +119,8 @@ public class BitsoService implements TradeService {
     }
 
     private Predicate<space.xrapid.domain.bitso.Trade> filterBitsoTradePerDate(OffsetDateTime begin) {
-        return p -> begin.isBefore(OffsetDateTime.parse(p.getCreatedAt().replace("0000", "00:00"), dateTimeFormatter));
+        long beginInMs = begin.toInstant().toEpochMilli();
+        return p -> TradeTimestamps.parseEpochMilli(p.getCreatedAt()) > beginInMs;
     }
 
     @Override
@@ -98,4 +128,14 @@ public class BitsoService implements TradeService {
         return Exchange.BITSO;
     }
 
+    @Override
+    public Duration getPollingInterval() {
+        return Duration.ofSeconds(5);
+    }
+
+    @Override
+    public int getMaxPollsPerMinute() {
+        return 12;
+    }
+
 }
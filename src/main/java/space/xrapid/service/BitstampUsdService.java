@@ -1,43 +1,63 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
+import space.xrapid.domain.TradeCursor;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
-import java.time.Instant;
+import java.time.Duration;
 import java.time.OffsetDateTime;
-import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
 public class BitstampUsdService implements TradeService {
 
+    private static final Duration LAST_MINUTE_MARGIN = Duration.ofSeconds(45);
+
     protected String apiUrl = "https://www.bitstamp.net/api/v2/transactions/xrpusd";
 
     private boolean firstCall = true;
 
+    @Autowired
+    private JsonHttpClient httpClient;
+
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        return fetchTrades(begin, firstCall ? apiUrl + "?time=day" : apiUrl);
+    }
+
+    /**
+     * Transactions can only be requested for the last minute, hour or day: the last minute is enough
+     * as long as the cursor is recent, the book being polled every few seconds.
+     */
     @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-        HttpEntity<String> entity = getEntity();
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin, TradeCursor cursor) {
+        boolean lastMinute = cursor.getDateTime().isAfter(OffsetDateTime.now(ZoneOffset.UTC).minus(LAST_MINUTE_MARGIN));
 
-        ResponseEntity<space.xrapid.domain.bitstamp.Trade[]> response = restTemplate.exchange(firstCall ? apiUrl + "?time=day" : apiUrl,
-                HttpMethod.GET, entity, space.xrapid.domain.bitstamp.Trade[].class);
+        return fetchTrades(begin, lastMinute ? apiUrl + "?time=minute" : apiUrl);
+    }
 
-        firstCall = false;
+    private CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin, String url) {
+        return httpClient.get(url, space.xrapid.domain.bitstamp.Trade[].class)
+                .thenApply(trades -> {
+                    firstCall = false;
 
-        return Arrays.stream(response.getBody())
-                .map(this::mapTrade)
-                .filter(filterTradePerDate(begin))
-                .collect(Collectors.toList());
+                    return Arrays.stream(trades)
+                            .map(this::mapTrade)
+                            .filter(filterTradePerDate(begin))
+                            .collect(Collectors.toList());
+                });
     }
 
     private Trade mapTrade(space.xrapid.domain.bitstamp.Trade trade) {
-        OffsetDateTime date = OffsetDateTime.ofInstant(Instant.ofEpochSecond(trade.getDate()), ZoneId.of("UTC"));
+        OffsetDateTime date = TradeTimestamps.ofEpochSecond(trade.getDate());
         return Trade.builder().amount(Double.valueOf(trade.getAmount()))
                 .exchange(getExchange())
                 .timestamp(date.toEpochSecond() * 1000)
@@ -52,4 +72,14 @@ public class BitstampUsdService implements TradeService {
     public Exchange getExchange() {
         return Exchange.BITSTAMP;
     }
+
+    @Override
+    public Duration getPollingInterval() {
+        return Duration.ofSeconds(5);
+    }
+
+    @Override
+    public int getMaxPollsPerMinute() {
+        return 12;
+    }
 }
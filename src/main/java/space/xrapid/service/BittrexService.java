@@ -1,16 +1,16 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
 import space.xrapid.domain.bittrex.Trades;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
 import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,17 +18,16 @@ public class BittrexService implements TradeService {
 
     private String apiUrl = "https://api.bittrex.com/api/v1.1/public/getmarkethistory?market=USD-XRP&limit=10";
 
-    @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-        HttpEntity<String> entity = getEntity();
-
-        ResponseEntity<Trades> response = restTemplate.exchange(apiUrl,
-                HttpMethod.GET, entity, space.xrapid.domain.bittrex.Trades.class);
+    @Autowired
+    private JsonHttpClient httpClient;
 
-        return response.getBody().getResult().stream()
-                .map(this::mapTrade)
-                .filter(filterTradePerDate(begin))
-                .collect(Collectors.toList());
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        return httpClient.get(apiUrl, space.xrapid.domain.bittrex.Trades.class)
+                .thenApply(response -> response.getResult().stream()
+                        .map(this::mapTrade)
+                        .filter(filterTradePerDate(begin))
+                        .collect(Collectors.toList()));
     }
 
     @Override
@@ -37,18 +36,12 @@ public class BittrexService implements TradeService {
     }
 
     private Trade mapTrade(space.xrapid.domain.bittrex.Trade trade) {
-        OffsetDateTime dateTime;
-
-        if (trade.getTimeStamp().contains(".")) {
-            dateTime = OffsetDateTime.parse(trade.getTimeStamp().replaceAll("\\.[0-9]+", "+00:00"), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-        } else {
-            dateTime = OffsetDateTime.parse(trade.getTimeStamp() + "+00:00", DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-        }
+        long timestamp = TradeTimestamps.parseEpochMilli(trade.getTimeStamp());
 
         return Trade.builder().amount(Double.valueOf(trade.getQuantity()))
                 .exchange(Exchange.BITTREX)
-                .timestamp(dateTime.toEpochSecond() * 1000)
-                .dateTime(dateTime)
+                .timestamp(timestamp)
+                .dateTime(TradeTimestamps.ofEpochMilli(timestamp))
                 .orderId(trade.getId().toString())
                 .rate(Double.valueOf(trade.getPrice()))
                 .side(trade.getOrderType().toLowerCase())
@@ -1,16 +1,17 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
+import space.xrapid.util.JsonHttpClient;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,19 +19,20 @@ public class BraziliexService implements TradeService {
 
     private String apiUrl = "https://braziliex.com/api/v1/public/tradehistory/xrp_brl/{TIMESTAMP}";
 
+    @Autowired
+    private JsonHttpClient httpClient;
+
     @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
         String urlGet = apiUrl.replace("{TIMESTAMP}", String.valueOf(OffsetDateTime.now(ZoneOffset.UTC).toEpochSecond() * 1000));
 
-        ResponseEntity<space.xrapid.domain.braziliex.Trade[]> response = restTemplate.exchange(urlGet,
-                HttpMethod.GET, getEntity(), space.xrapid.domain.braziliex.Trade[].class);
-
-        return getTrades(begin, response);
+        return httpClient.get(urlGet, space.xrapid.domain.braziliex.Trade[].class)
+                .thenApply(trades -> getTrades(begin, trades));
     }
 
-    private List<Trade> getTrades(OffsetDateTime begin, ResponseEntity<space.xrapid.domain.braziliex.Trade[]> response) {
+    private List<Trade> getTrades(OffsetDateTime begin, space.xrapid.domain.braziliex.Trade[] trades) {
         long beginTimestamp = begin.toEpochSecond() * 1000;
-        return Arrays.stream(response.getBody())
+        return Arrays.stream(trades)
                 .filter(p -> beginTimestamp < p.getTimestamp())
                 .sorted(Comparator.comparing(space.xrapid.domain.braziliex.Trade::getTimestamp))
                 .map(this::mapTrade)
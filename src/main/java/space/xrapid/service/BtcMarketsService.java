@@ -1,16 +1,17 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,18 +19,16 @@ public class BtcMarketsService implements TradeService {
 
     private String url = "https://api.btcmarkets.net/v3/markets/XRP-AUD/trades";
 
-    @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-
-        HttpEntity<String> entity = getEntity();
-
-        ResponseEntity<space.xrapid.domain.btcmarkets.Trade[]> response = restTemplate.exchange(url,
-                HttpMethod.GET, entity, space.xrapid.domain.btcmarkets.Trade[].class);
+    @Autowired
+    private JsonHttpClient httpClient;
 
-        return Arrays.stream(response.getBody())
-                .map(this::mapTrade)
-                .filter(filterTradePerDate(begin))
-                .collect(Collectors.toList());
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        return httpClient.get(url, space.xrapid.domain.btcmarkets.Trade[].class)
+                .thenApply(trades -> Arrays.stream(trades)
+                        .map(this::mapTrade)
+                        .filter(filterTradePerDate(begin))
+                        .collect(Collectors.toList()));
     }
 
     @Override
@@ -37,25 +36,28 @@ public class BtcMarketsService implements TradeService {
         return Exchange.BTC_MARKETS;
     }
 
+    @Override
+    public Duration getPollingInterval() {
+        return Duration.ofSeconds(5);
+    }
 
-    private Trade mapTrade(space.xrapid.domain.btcmarkets.Trade trade) {
+    @Override
+    public int getMaxPollsPerMinute() {
+        return 12;
+    }
 
-        String stringDate = transformDate(trade.getTimestamp());
-        OffsetDateTime date = OffsetDateTime.parse(stringDate, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
 
+    private Trade mapTrade(space.xrapid.domain.btcmarkets.Trade trade) {
+        long timestamp = TradeTimestamps.parseTruncatedEpochMilli(trade.getTimestamp());
 
         return Trade.builder()
                 .orderId(trade.getId())
                 .side("Ask".equals(trade.getSide()) ? "buy" : "sell")
-                .dateTime(date)
-                .timestamp(date.toEpochSecond() * 1000)
+                .dateTime(TradeTimestamps.ofEpochMilli(timestamp))
+                .timestamp(timestamp)
                 .amount(trade.getAmount())
                 .rate(trade.getPrice())
                 .exchange(Exchange.BTC_MARKETS)
                 .build();
     }
-
-    private String transformDate(String date) {
-        return date.replaceAll("\\..+", "+00:00");
-    }
 }
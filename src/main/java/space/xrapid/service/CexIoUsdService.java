@@ -1,19 +1,17 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
-import space.xrapid.domain.cexio.MessageConverter;
+import space.xrapid.domain.TradeCursor;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
-import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.time.ZoneId;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -22,22 +20,33 @@ public class CexIoUsdService implements TradeService {
 
     private String apiUrl = "https://cex.io/api/trade_history/XRP/{market}";
 
-    @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-        HttpEntity<String> entity = getEntity();
+    private String sinceUrl = "https://cex.io/api/trade_history/XRP/{market}/?since={since}";
 
-        RestTemplate cexRestTemplate = new RestTemplate();
-        cexRestTemplate.getMessageConverters().add(new MessageConverter());
+    @Autowired
+    private JsonHttpClient httpClient;
 
-        ResponseEntity<space.xrapid.domain.cexio.Trade[]> response = cexRestTemplate.exchange(apiUrl.replace("{market}", getMarket()),
-                HttpMethod.GET, entity, space.xrapid.domain.cexio.Trade[].class);
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        return fetchTrades(begin, apiUrl.replace("{market}", getMarket()));
+    }
 
+    /**
+     * Only requests trades from the cursor trade id on, the cursor trade itself included.
+     */
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin, TradeCursor cursor) {
+        return fetchTrades(begin, sinceUrl
+                .replace("{market}", getMarket())
+                .replace("{since}", cursor.getOrderId()));
+    }
 
-        return getTrades(begin, response);
+    private CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin, String url) {
+        return httpClient.get(url, space.xrapid.domain.cexio.Trade[].class)
+                .thenApply(trades -> getTrades(begin, trades));
     }
 
-    private List<Trade> getTrades(OffsetDateTime begin, ResponseEntity<space.xrapid.domain.cexio.Trade[]> response) {
-        return Stream.of(response.getBody())
+    private List<Trade> getTrades(OffsetDateTime begin, space.xrapid.domain.cexio.Trade[] trades) {
+        return Stream.of(trades)
                 .sorted(Comparator.comparing(space.xrapid.domain.cexio.Trade::getDate))
                 .map(this::mapTrade)
                 .filter(filterTradePerDate(begin))
@@ -45,7 +54,7 @@ public class CexIoUsdService implements TradeService {
     }
 
     private Trade mapTrade(space.xrapid.domain.cexio.Trade trade) {
-        OffsetDateTime date = OffsetDateTime.ofInstant(Instant.ofEpochSecond(trade.getDate()), ZoneId.of("UTC"));
+        OffsetDateTime date = TradeTimestamps.ofEpochSecond(trade.getDate());
         return Trade.builder().amount(Double.valueOf(trade.getAmount()))
                 .exchange(getExchange())
                 .timestamp(date.toEpochSecond() * 1000)
@@ -1,17 +1,17 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
 import space.xrapid.domain.coinfield.Trades;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
 import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,20 +19,20 @@ public class CoinfieldUsdService implements TradeService {
 
     private String apiUrl = "https://api.coinfield.com/v1/trades/{market}?limit=1000&timestamp={timestamp}&order_by=desc";
 
-    @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-        HttpEntity<String> entity = getEntity();
-
-        ResponseEntity<Trades> response = restTemplate.exchange(apiUrl.replace("{market}", getMarket())
-                        .replace("{timestamp}", String.valueOf(begin.toEpochSecond())),
-                HttpMethod.GET, entity, Trades.class);
+    @Autowired
+    private JsonHttpClient httpClient;
 
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        String url = apiUrl.replace("{market}", getMarket())
+                .replace("{timestamp}", String.valueOf(begin.toEpochSecond()));
 
-        return getTrades(begin, response);
+        return httpClient.get(url, Trades.class)
+                .thenApply(response -> getTrades(begin, response));
     }
 
-    private List<Trade> getTrades(OffsetDateTime begin, ResponseEntity<Trades> response) {
-        return response.getBody().getTrades().stream()
+    private List<Trade> getTrades(OffsetDateTime begin, Trades response) {
+        return response.getTrades().stream()
                 .sorted(Comparator.comparing(space.xrapid.domain.coinfield.Trade::getTimestamp))
                 .map(this::mapTrade)
                 .filter(filterTradePerDate(begin))
@@ -40,10 +40,12 @@ public class CoinfieldUsdService implements TradeService {
     }
 
     private Trade mapTrade(space.xrapid.domain.coinfield.Trade trade) {
+        long timestamp = TradeTimestamps.parseEpochMilli(trade.getTimestamp());
+
         return Trade.builder().amount(Double.valueOf(trade.getVolume()))
                 .exchange(getExchange())
-                .timestamp(OffsetDateTime.parse(trade.getTimestamp().replace("Z", "+00:00"), DateTimeFormatter.ISO_OFFSET_DATE_TIME).toEpochSecond() * 1000)
-                .dateTime(OffsetDateTime.parse(trade.getTimestamp().replace("Z", "+00:00"), DateTimeFormatter.ISO_OFFSET_DATE_TIME))
+                .timestamp(timestamp)
+                .dateTime(TradeTimestamps.ofEpochMilli(timestamp))
                 .orderId(trade.getId())
                 .rate(Double.valueOf(trade.getPrice()))
                 //FIXME
@@ -2,197 +2,215 @@ package space.xrapid.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import space.xrapid.domain.Currency;
+import space.xrapid.domain.DailyVolumeRollup;
 import space.xrapid.domain.ExchangeToExchangePayment;
-import space.xrapid.domain.Stats;
+import space.xrapid.domain.PaymentCursor;
+import space.xrapid.repository.DailyVolumeRollupRepository;
 import space.xrapid.repository.ExchangeToExchangePaymentRepository;
 
-import javax.persistence.criteria.Predicate;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 @Transactional(readOnly = true)
 public class ExchangeToExchangePaymentService {
 
+    /**
+     * Every column mapped by {@link ExchangeToExchangePayment} but its IDENTITY id, in the order of
+     * {@link #setInsertParameters}: both have to follow the entity fields. Rows whose transaction hash
+     * is already stored are ignored, the unique index deciding rather than a prior lookup.
+     */
+    private static final String INSERT_PAYMENT = "INSERT IGNORE INTO exchange_payment (amount, confirmed, date_time, destination, destination_address, " +
+            "destination_currencry, destination_fiat, in_trade_found, out_trade_found, source, source_address, source_fiat, spotted_at, tag, " +
+            "timestamp, trade_ids, trade_out_ids, transaction_hash, usd_value) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private ExchangeToExchangePaymentRepository repository;
 
-    private Map<OffsetDateTime, Double> dailyVolumes = new HashMap<>();
+    @Autowired
+    private DailyVolumeRollupRepository dailyVolumeRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Transactional
     public boolean save(ExchangeToExchangePayment exchangeToExchangePayment) {
+        return !saveAll(Collections.singletonList(exchangeToExchangePayment)).isEmpty();
+    }
 
-        boolean exist = repository.existsByTransactionHash(exchangeToExchangePayment.getTransactionHash());
-
-        if (exist) {
-            return false;
+    /**
+     * Inserts in one JDBC batch the payments whose transaction hash is not saved yet, setting their generated id.
+     *
+     * @return the payments actually saved
+     */
+    @Transactional
+    public List<ExchangeToExchangePayment> saveAll(List<ExchangeToExchangePayment> payments) {
+        if (payments.isEmpty()) {
+            return Collections.emptyList();
         }
 
-        exchangeToExchangePayment.setTradeOutIds(exchangeToExchangePayment.getTradeOutIds());
-        exchangeToExchangePayment.setTradeIds(exchangeToExchangePayment.getTradeIds());
-        repository.save(exchangeToExchangePayment);
+        List<ExchangeToExchangePayment> newPayments = jdbcTemplate.execute(
+                (Connection connection) -> connection.prepareStatement(INSERT_PAYMENT, Statement.RETURN_GENERATED_KEYS),
+                (PreparedStatement statement) -> insert(statement, payments));
 
-        return true;
-    }
+        addToDailyVolumes(newPayments);
 
-    @Cacheable(value = "statsCache", key = "1")
-    public Stats calculateStats() {
-        try {
-            OffsetDateTime today = OffsetDateTime.now(ZoneOffset.UTC).withMinute(0).withHour(0).withSecond(0).withNano(0);
-            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
-            Double allTimeVolume = repository.getAllTimeVolume();
-            Double todayVolume = repository.getVolumeBetween(today.toEpochSecond() * 1000, now.toEpochSecond() * 1000);
+        newPayments.forEach(eventPublisher::publishEvent);
 
-            String[] days = new String[11];
+        return newPayments;
+    }
 
-            if (todayVolume == null) {
-                todayVolume = 0d;
-            }
+    /**
+     * Rebuilds the daily volumes from the payments history when none were computed yet.
+     */
+    @Transactional
+    public void backfillDailyVolumes() {
+        if (dailyVolumeRepository.count() > 0) {
+            return;
+        }
 
-            Map<String, Double> volumes = new HashMap<>();
-
-            List<Currency> currencies = Arrays.stream(Currency.values()).collect(Collectors.toList());
-            for (Currency source : currencies) {
-                for (Currency destination : currencies) {
-                    if (source.equals(destination)) {
-                        continue;
-                    }
-
-                    try {
-                        Double volume = repository.getVolumeBySourceFiatAndDestinationFiatBetween(source.toString(), destination.toString(),
-                                now.minusDays(1).toEpochSecond() * 1000, now.toEpochSecond() * 1000);
-                        if (volume != null) {
-                            String key = source + "-" + destination;
-                            if (volumes.containsKey(key)) {
-                                volumes.put(key, roundVolume(volume) + volumes.get(key));
-                            } else {
-                                volumes.put(key, roundVolume(volume));
-                            }
-                        }
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                }
-            }
+        List<DailyVolumeRollup> dailyVolumes = repository.getCorridorDailyVolumes().stream()
+                .map(corridor -> DailyVolumeRollup.builder()
+                        .epochDay(corridor.getDay())
+                        .sourceFiat(corridor.getSourceFiat())
+                        .destinationFiat(corridor.getDestinationFiat())
+                        .volume(corridor.getVolume() == null ? 0 : corridor.getVolume())
+                        .paymentCount(corridor.getPaymentCount())
+                        .build())
+                .collect(Collectors.toList());
 
-            double[] volumePerDay = new double[11];
-            volumePerDay[10] = roundVolume(todayVolume);
+        dailyVolumeRepository.saveAll(dailyVolumes);
 
-            days[10] = "Today";
+        log.info("{} daily volumes backfilled", dailyVolumes.size());
+    }
 
-            for (int i = 9; i >= 0; i--) {
-                Double volume = repository.getVolumeBetween(today.minusDays(1 * (i + 1)).toEpochSecond() * 1000, today.minusDays(1 * (i + 1)).plusDays(1).toEpochSecond() * 1000);
+    private void addToDailyVolumes(List<ExchangeToExchangePayment> payments) {
+        Map<String, DailyVolumeRollup> dailyVolumes = new HashMap<>();
 
-                if (volume == null) {
-                    volumePerDay[9 - i] = 0;
+        for (ExchangeToExchangePayment payment : payments) {
+            long epochDay = Math.floorDiv(payment.getTimestamp(), TimeUnit.DAYS.toMillis(1));
 
-                } else {
-                    volumePerDay[9 - i] = roundVolume(volume);
-                }
+            DailyVolumeRollup dailyVolume = dailyVolumes.computeIfAbsent(epochDay + "|" + payment.getSourceFiat() + "|" + payment.getDestinationFiat(), key -> {
+                DailyVolumeRollup existing = dailyVolumeRepository.getByEpochDayAndSourceFiatAndDestinationFiat(epochDay, payment.getSourceFiat(), payment.getDestinationFiat());
 
-                days[9 - i] = today.minusDays(1 * (i + 1)).toString().substring(2, 10);
-            }
+                return existing != null ? existing : DailyVolumeRollup.builder().epochDay(epochDay).sourceFiat(payment.getSourceFiat()).destinationFiat(payment.getDestinationFiat()).build();
+            });
 
-            calculateDailyVolumes();
-
-            double athDayVolume = dailyVolumes.values().stream()
-                    .mapToDouble(v -> v.doubleValue())
-                    .max().getAsDouble();
-
-            return Stats.builder()
-                    .allTimeVolume(roundVolume(allTimeVolume))
-                    .todayVolume(roundVolume(todayVolume))
-                    .topVolumes(volumes)
-                    .allTimeFrom(repository.getFirstOdl().getDateTime())
-                    .last5DaysOdlVolume(volumePerDay)
-                    .athDaylyVolume(athDayVolume)
-                    .days(days)
-                    .build();
-        } catch (Exception e) {
-            return null;
+            dailyVolume.setVolume(dailyVolume.getVolume() + payment.getUsdValue());
+            dailyVolume.setPaymentCount(dailyVolume.getPaymentCount() + 1);
         }
-    }
-
-    private void calculateDailyVolumes() {
-        OffsetDateTime today = OffsetDateTime.now(ZoneOffset.UTC).withMinute(0).withHour(0).withSecond(0).withNano(0);
-        OffsetDateTime day = today.minusDays(1);
-        if (dailyVolumes.isEmpty()) {
-            for (int i = 0; i < 365; i++) {
-                Double volume = repository.getVolumeBetween(day.toEpochSecond() * 1000, day.plusDays(1).toEpochSecond() * 1000);
-                dailyVolumes.put(day, volume == null ? 0 : volume);
-                day = day.minusDays(1);
-            }
-        } else {
-            OffsetDateTime latestCalculatedDay = dailyVolumes.keySet().stream().max(Comparator.comparing(OffsetDateTime::toEpochSecond)).get();
-            day = latestCalculatedDay.plusDays(1);
 
-            while (day.isBefore(today)) {
-                Double volume = repository.getVolumeBetween(day.toEpochSecond() * 1000, day.plusDays(1).toEpochSecond() * 1000);
-
-                dailyVolumes.put(day, volume == null ? 0 : volume);
+        dailyVolumeRepository.saveAll(dailyVolumes.values());
+    }
 
-                day = day.plusDays(1);
-            }
+    /**
+     * Reads the inserted payments from the per row update counts, the ignored duplicates counting 0, then
+     * their ids from the generated keys, returned for inserted rows only, in batch order.
+     */
+    private List<ExchangeToExchangePayment> insert(PreparedStatement statement, List<ExchangeToExchangePayment> payments) throws SQLException {
+        for (ExchangeToExchangePayment payment : payments) {
+            setInsertParameters(statement, payment);
+            statement.addBatch();
         }
-    }
 
-    public List<ExchangeToExchangePayment> search(Long from, Long to, Currency source, Currency destination) {
+        int[] updateCounts = statement.executeBatch();
 
-        return repository.findAll((Specification<ExchangeToExchangePayment>) (root, query, criteriaBuilder) -> {
-            List<Predicate> predicates = new ArrayList<>();
-            if (source != null) {
-                predicates.add(criteriaBuilder.and(criteriaBuilder.equal(root.get("sourceFiat"), source)));
-            }
+        List<ExchangeToExchangePayment> newPayments = new ArrayList<>();
 
-            if (destination != null) {
-                predicates.add(criteriaBuilder.and(criteriaBuilder.equal(root.get("destinationFiat"), destination)));
+        for (int i = 0; i < payments.size(); i++) {
+            if (updateCounts[i] == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("No update count per payment, the batch must not be rewritten by the JDBC driver");
             }
-
-            if (from != null) {
-                predicates.add(criteriaBuilder.and(criteriaBuilder.ge(root.get("timestamp"), from)));
+            if (updateCounts[i] > 0) {
+                newPayments.add(payments.get(i));
             }
+        }
 
-            if (to != null) {
-                predicates.add(criteriaBuilder.and(criteriaBuilder.le(root.get("timestamp"), to)));
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            for (ExchangeToExchangePayment payment : newPayments) {
+                if (!keys.next()) {
+                    throw new IllegalStateException("No generated id for payment " + payment.getTransactionHash());
+                }
+                payment.setId(keys.getInt(1));
             }
+        }
 
-            return criteriaBuilder.and(predicates.toArray(new Predicate[predicates.size()]));
-        });
-
+        return newPayments;
     }
 
-    private double roundVolume(double volume) {
-        return Math.round(volume * 100.0) / 100.0;
+    private void setInsertParameters(PreparedStatement statement, ExchangeToExchangePayment payment) throws SQLException {
+        statement.setObject(1, payment.getAmount());
+        statement.setBoolean(2, payment.isConfirmed());
+        statement.setTimestamp(3, payment.getDateTime() == null ? null : Timestamp.from(payment.getDateTime().toInstant()));
+        statement.setString(4, name(payment.getDestination()));
+        statement.setString(5, payment.getDestinationAddress());
+        statement.setString(6, name(payment.getDestinationCurrencry()));
+        statement.setString(7, name(payment.getDestinationFiat()));
+        statement.setBoolean(8, payment.isInTradeFound());
+        statement.setBoolean(9, payment.isOutTradeFound());
+        statement.setString(10, name(payment.getSource()));
+        statement.setString(11, payment.getSourceAddress());
+        statement.setString(12, name(payment.getSourceFiat()));
+        statement.setObject(13, payment.getSpottedAt() == null ? null : payment.getSpottedAt().ordinal(), Types.INTEGER);
+        statement.setObject(14, payment.getTag(), Types.BIGINT);
+        statement.setObject(15, payment.getTimestamp(), Types.BIGINT);
+        statement.setString(16, payment.getTradeIds());
+        statement.setString(17, payment.getTradeOutIds());
+        statement.setString(18, payment.getTransactionHash());
+        statement.setDouble(19, payment.getUsdValue());
     }
 
-    @Cacheable(value = "lastOdlCache", key = "1")
-    public List<ExchangeToExchangePayment> getLasts() {
-        List<ExchangeToExchangePayment> payments =  repository.findTop(1000);
-
-        payments.forEach(payment -> {
-            if (payment.getTradeIds() != null && !payment.getTradeIds().isEmpty()) {
-                payment.setXrpToFiatTradeIds(Arrays.asList(payment.getTradeIds().split(";")));
-            }
-
-            if (payment.getTradeOutIds() != null && !payment.getTradeOutIds().isEmpty()) {
-                payment.setFiatToXrpTradeIds(Arrays.asList(payment.getTradeOutIds().split(";")));
-            }
-
-        });
-
-        return payments;
+    private static String name(Enum<?> value) {
+        return value == null ? null : value.name();
     }
 
+    /**
+     * @return at most {@code limit} payments following {@code after}, in (timestamp, id) order
+     */
+    public List<ExchangeToExchangePayment> getPaymentsAfter(Long from, Long to, Currency source, Currency destination, PaymentCursor after, int limit) {
+        return repository.findPaymentsAfter(from == null ? Long.MIN_VALUE : from, to == null ? Long.MAX_VALUE : to, source, destination,
+                after == null ? Long.MIN_VALUE : after.getTimestamp(), after == null ? 0 : after.getId(),
+                PageRequest.of(0, Math.min(limit, MAX_PAGE_SIZE)));
+    }
 
-    public List<ExchangeToExchangePayment> getPayments(long from, long to) {
-        return repository.findByDate(from, to);
+    /**
+     * Reads the payments following {@code after} from a database cursor, one at a time, so that a whole
+     * history can be sent without being held in memory.
+     */
+    public void forEachPaymentAfter(Long from, Long to, Currency source, Currency destination, PaymentCursor after, Consumer<ExchangeToExchangePayment> consumer) {
+        try (Stream<ExchangeToExchangePayment> payments = repository.streamPaymentsAfter(from == null ? Long.MIN_VALUE : from, to == null ? Long.MAX_VALUE : to,
+                source, destination, after == null ? Long.MIN_VALUE : after.getTimestamp(), after == null ? 0 : after.getId())) {
+            payments.forEach(payment -> {
+                consumer.accept(payment);
+                entityManager.detach(payment);
+            });
+        }
     }
 }
@@ -1,18 +1,17 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
 import space.xrapid.domain.exmo.Trades;
 import space.xrapid.domain.exmo.XRPUAH;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
-import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.time.ZoneId;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,17 +19,16 @@ public class ExmoService implements TradeService {
 
     private String apiUrl = "https://api.exmo.com/v1/trades/?pair=XRP_UAH";
 
-    @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-        HttpEntity<String> entity = getEntity();
-
-        ResponseEntity<Trades> response = restTemplate.exchange(apiUrl,
-                HttpMethod.GET, entity, Trades.class);
+    @Autowired
+    private JsonHttpClient httpClient;
 
-        return response.getBody().getXRPUAH().stream()
-                .map(this::mapTrade)
-                .filter(filterTradePerDate(begin))
-                .collect(Collectors.toList());
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        return httpClient.get(apiUrl, Trades.class)
+                .thenApply(response -> response.getXRPUAH().stream()
+                        .map(this::mapTrade)
+                        .filter(filterTradePerDate(begin))
+                        .collect(Collectors.toList()));
     }
 
     @Override
@@ -40,7 +38,7 @@ public class ExmoService implements TradeService {
 
     private Trade mapTrade(XRPUAH trade) {
 
-        OffsetDateTime date = OffsetDateTime.ofInstant(Instant.ofEpochSecond(Long.valueOf(trade.getDate())), ZoneId.of("UTC"));
+        OffsetDateTime date = TradeTimestamps.ofEpochSecond(Long.valueOf(trade.getDate()));
 
         return Trade.builder()
                 .side(trade.getType())
@@ -1,16 +1,16 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
 import space.xrapid.domain.independentreserve.Trades;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
 import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,17 +18,16 @@ public class IndependentReserveNzdService implements TradeService {
 
     private String apiUrl = "https://api.independentreserve.com/Public/GetRecentTrades?primaryCurrencyCode=xrp&secondaryCurrencyCode=nzd&numberOfRecentTradesToRetrieve=50";
 
-    @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-        HttpEntity<String> entity = getEntity();
-
-        ResponseEntity<Trades> response = restTemplate.exchange(apiUrl,
-                HttpMethod.GET, entity, Trades.class);
+    @Autowired
+    private JsonHttpClient httpClient;
 
-        return response.getBody().getTrades().stream()
-                .map(this::mapTrade)
-                .filter(filterTradePerDate(begin))
-                .collect(Collectors.toList());
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        return httpClient.get(apiUrl, Trades.class)
+                .thenApply(response -> response.getTrades().stream()
+                        .map(this::mapTrade)
+                        .filter(filterTradePerDate(begin))
+                        .collect(Collectors.toList()));
     }
 
     @Override
@@ -37,16 +36,16 @@ public class IndependentReserveNzdService implements TradeService {
     }
 
     private Trade mapTrade(space.xrapid.domain.independentreserve.Trade trade) {
-        OffsetDateTime dateTime = OffsetDateTime.parse(trade.getTradeTimestampUtc().replaceAll("\\..+", "+00:00"), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        long timestamp = TradeTimestamps.parseTruncatedEpochMilli(trade.getTradeTimestampUtc());
 
         return Trade.builder()
                 .exchange(getExchange())
-                .dateTime(dateTime)
-                .timestamp(dateTime.toEpochSecond() * 1000)
+                .dateTime(TradeTimestamps.ofEpochMilli(timestamp))
+                .timestamp(timestamp)
                 .amount(trade.getPrimaryCurrencyAmount())
                 .side("buy")
                 .rate(trade.getSecondaryCurrencyTradePrice())
-                .orderId(String.valueOf(dateTime.toEpochSecond() * 1000))
+                .orderId(String.valueOf(timestamp))
                 .build();
     }
 }
@@ -1,18 +1,17 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,17 +19,16 @@ public class IndodaxService implements TradeService {
 
     protected String apiUrl = "https://indodax.com/api/xrp_idr/trades";
 
-    @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-        HttpEntity<String> entity = getEntity();
-
-        ResponseEntity<space.xrapid.domain.indodax.Trade[]> response = restTemplate.exchange(apiUrl,
-            HttpMethod.GET, entity, space.xrapid.domain.indodax.Trade[].class);
+    @Autowired
+    private JsonHttpClient httpClient;
 
-        return Arrays.stream(response.getBody())
-            .map(this::mapTrade)
-            .filter(filterTradePerDate(begin))
-            .collect(Collectors.toList());
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        return httpClient.get(apiUrl, space.xrapid.domain.indodax.Trade[].class)
+                .thenApply(trades -> Arrays.stream(trades)
+                    .map(this::mapTrade)
+                    .filter(filterTradePerDate(begin))
+                    .collect(Collectors.toList()));
     }
 
     @Override
@@ -40,7 +38,7 @@ public class IndodaxService implements TradeService {
 
     private Trade mapTrade(space.xrapid.domain.indodax.Trade trade) {
 
-        OffsetDateTime date = OffsetDateTime.ofInstant(Instant.ofEpochSecond(trade.getDate()), ZoneId.of("UTC"));
+        OffsetDateTime date = TradeTimestamps.ofEpochSecond(trade.getDate());
 
         return Trade.builder().amount(Double.valueOf(trade.getAmount()))
             .exchange(getExchange())
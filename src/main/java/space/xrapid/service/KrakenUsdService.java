@@ -1,18 +1,18 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
+import space.xrapid.domain.TradeCursor;
 import space.xrapid.domain.kraken.Trades;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
-import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,21 +20,35 @@ public class KrakenUsdService implements TradeService {
 
     private String apiUrl = "https://api.kraken.com/0/public/Trades?pair={pair}";
 
+    private String sinceUrl = "https://api.kraken.com/0/public/Trades?pair={pair}&since={since}";
+
+    @Autowired
+    private JsonHttpClient httpClient;
+
     @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-        HttpEntity<String> entity = getEntity();
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        return fetchTrades(begin, apiUrl.replace("{pair}", getPair()));
+    }
 
-        ResponseEntity<Trades> response = restTemplate.exchange(apiUrl.replace("{pair}", getPair()),
-                HttpMethod.GET, entity, Trades.class);
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin, TradeCursor cursor) {
+        return fetchTrades(begin, sinceUrl
+                .replace("{pair}", getPair())
+                .replace("{since}", String.valueOf(cursor.getDateTime().minusSeconds(1).toEpochSecond())));
+    }
 
-        ArrayList<List> trades = (ArrayList)response.getBody().getResult().getAdditionalProperties().values()
-                .stream()
-                .findFirst().get();
+    private CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin, String url) {
+        return httpClient.get(url, Trades.class)
+                .thenApply(response -> {
+                    ArrayList<List> trades = (ArrayList) response.getResult().getAdditionalProperties().values()
+                            .stream()
+                            .findFirst().get();
 
-        return trades.stream()
-                .map(this::mapTrade)
-                .filter(filterTradePerDate(begin))
-                .collect(Collectors.toList());
+                    return trades.stream()
+                            .map(this::mapTrade)
+                            .filter(filterTradePerDate(begin))
+                            .collect(Collectors.toList());
+                });
     }
 
     @Override
@@ -43,7 +57,7 @@ public class KrakenUsdService implements TradeService {
     }
 
     private Trade mapTrade(List trade) {
-        OffsetDateTime date = OffsetDateTime.ofInstant(Instant.ofEpochSecond(Math.round(Double.valueOf(trade.get(2).toString()))), ZoneId.of("UTC"));
+        OffsetDateTime date = TradeTimestamps.ofEpochSecond(Math.round(Double.valueOf(trade.get(2).toString())));
         return Trade.builder().amount(Double.valueOf(Double.valueOf(trade.get(1).toString())))
                 .exchange(getExchange())
                 .timestamp(date.toEpochSecond() * 1000)
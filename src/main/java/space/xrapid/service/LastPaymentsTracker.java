@@ -0,0 +1,73 @@
+package space.xrapid.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import space.xrapid.domain.ExchangeToExchangePayment;
+import space.xrapid.domain.PaymentSummary;
+import space.xrapid.repository.ExchangeToExchangePaymentRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Last payments listed by the dashboard, read once from the database then updated by every committed payment.
+ */
+@Slf4j
+@Service
+public class LastPaymentsTracker {
+
+    private static final int MAX_PAYMENTS = 1000;
+
+    @Autowired
+    private ExchangeToExchangePaymentRepository repository;
+
+    private final List<PaymentSummary> payments = new ArrayList<>(MAX_PAYMENTS + 1);
+
+    private List<PaymentSummary> snapshot = Collections.emptyList();
+
+    @PostConstruct
+    public synchronized void init() {
+        List<PaymentSummary> lastPayments = repository.findLastSummaries(PageRequest.of(0, MAX_PAYMENTS));
+
+        for (int i = lastPayments.size() - 1; i >= 0; i--) {
+            payments.add(lastPayments.get(i));
+        }
+        snapshot = null;
+
+        log.info("{} last payments loaded", payments.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPaymentSaved(ExchangeToExchangePayment payment) {
+        int position = payments.size();
+        while (position > 0 && payments.get(position - 1).getTimestamp() > payment.getTimestamp()) {
+            position--;
+        }
+
+        if (position == 0 && payments.size() == MAX_PAYMENTS) {
+            return;
+        }
+
+        payments.add(position, PaymentSummary.of(payment));
+
+        if (payments.size() > MAX_PAYMENTS) {
+            payments.remove(0);
+        }
+        snapshot = null;
+    }
+
+    /**
+     * @return the last payments, oldest first
+     */
+    public synchronized List<PaymentSummary> getLasts() {
+        if (snapshot == null) {
+            snapshot = Collections.unmodifiableList(new ArrayList<>(payments));
+        }
+        return snapshot;
+    }
+}
@@ -1,17 +1,18 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
+import space.xrapid.domain.TradeCursor;
 import space.xrapid.domain.liquid.Trades;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
-import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,17 +20,33 @@ public class LquidJpyService implements TradeService {
 
     private String apiUrl = "https://api.liquid.com/executions?product_id=83&limit=1000";
 
+    private String sinceUrl = "https://api.liquid.com/executions?product_id=83&limit=1000&timestamp={timestamp}";
+
+    @Autowired
+    private JsonHttpClient httpClient;
+
     @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-        HttpEntity<String> entity = getEntity();
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        return httpClient.get(apiUrl, Trades.class)
+                .thenApply(response -> response.getTrades().stream()
+                        .map(this::mapTrade)
+                        .filter(filterTradePerDate(begin))
+                        .collect(Collectors.toList()));
+    }
 
-        ResponseEntity<Trades> response = restTemplate.exchange(apiUrl,
-                HttpMethod.GET, entity, Trades.class);
+    /**
+     * Executions from the cursor second on come oldest first, as a plain array: when more than a page
+     * was executed since, the next poll goes on from the newest one returned.
+     */
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin, TradeCursor cursor) {
+        String url = sinceUrl.replace("{timestamp}", String.valueOf(cursor.getDateTime().toEpochSecond()));
 
-        return response.getBody().getTrades().stream()
-                .map(this::mapTrade)
-                .filter(filterTradePerDate(begin))
-                .collect(Collectors.toList());
+        return httpClient.get(url, space.xrapid.domain.liquid.Trade[].class)
+                .thenApply(trades -> Arrays.stream(trades)
+                        .map(this::mapTrade)
+                        .filter(filterTradePerDate(begin))
+                        .collect(Collectors.toList()));
     }
 
     @Override
@@ -38,7 +55,7 @@ public class LquidJpyService implements TradeService {
     }
 
     private Trade mapTrade(space.xrapid.domain.liquid.Trade trade) {
-        OffsetDateTime date = OffsetDateTime.ofInstant(Instant.ofEpochSecond(Long.valueOf(trade.getCreatedAt())), ZoneId.of("UTC"));
+        OffsetDateTime date = TradeTimestamps.ofEpochSecond(Long.valueOf(trade.getCreatedAt()));
         return Trade.builder()
                 .orderId(trade.getId())
                 .side(trade.getTakerSide())
@@ -1,19 +1,18 @@
 package space.xrapid.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
-import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,19 +21,19 @@ public class MercadoBitcoinService implements TradeService {
 
     private String apiUrl = "https://www.mercadobitcoin.net/api/XRP/trades/{FROM}/{TO}/";
 
-    @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-        HttpEntity<String> entity = getEntity();
-
-        ResponseEntity<space.xrapid.domain.mercadobitcoin.Trade[]> response = restTemplate.exchange(apiUrl.replace("{FROM}", begin.toEpochSecond() + "")
-                        .replace("{TO}", OffsetDateTime.now(ZoneOffset.UTC).toEpochSecond() + ""),
-                HttpMethod.GET, entity, space.xrapid.domain.mercadobitcoin.Trade[].class);
+    @Autowired
+    private JsonHttpClient httpClient;
 
-
-        return Arrays.stream(response.getBody())
-                .map(this::mapTrade)
-                .filter(filterTradePerDate(begin))
-                .collect(Collectors.toList());
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        String url = apiUrl.replace("{FROM}", begin.toEpochSecond() + "")
+                .replace("{TO}", OffsetDateTime.now(ZoneOffset.UTC).toEpochSecond() + "");
+
+        return httpClient.get(url, space.xrapid.domain.mercadobitcoin.Trade[].class)
+                .thenApply(trades -> Arrays.stream(trades)
+                        .map(this::mapTrade)
+                        .filter(filterTradePerDate(begin))
+                        .collect(Collectors.toList()));
     }
 
 
@@ -42,7 +41,7 @@ public class MercadoBitcoinService implements TradeService {
         return Trade.builder().amount(Double.valueOf(trade.getAmount()))
                 .exchange(Exchange.MERCADO)
                 .timestamp(trade.getDate() * 1000)
-                .dateTime(OffsetDateTime.ofInstant(Instant.ofEpochSecond(trade.getDate()), ZoneId.of("UTC")))
+                .dateTime(TradeTimestamps.ofEpochSecond(trade.getDate()))
                 .orderId(trade.getTid().toString())
                 .rate(Double.valueOf(trade.getPrice()))
                 .build();
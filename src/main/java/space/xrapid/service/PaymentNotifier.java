@@ -0,0 +1,31 @@
+package space.xrapid.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import space.xrapid.domain.ExchangeToExchangePayment;
+
+/**
+ * Pushes every committed payment to {@code /topic/payments}, payments already saved or only spilled
+ * never being announced.
+ */
+@Slf4j
+@Service
+public class PaymentNotifier {
+
+    @Autowired
+    private SimpMessageSendingOperations messagingTemplate;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentSaved(ExchangeToExchangePayment payment) {
+        log.info("Xrapid payment {} ", payment);
+
+        try {
+            messagingTemplate.convertAndSend("/topic/payments", payment);
+        } catch (Exception e) {
+            log.error("Error notifying payment {}", payment, e);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package space.xrapid.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import space.xrapid.domain.DailyVolume;
+import space.xrapid.domain.ExchangeToExchangePayment;
+import space.xrapid.domain.Stats;
+import space.xrapid.repository.DailyVolumeRollupRepository;
+import space.xrapid.repository.ExchangeToExchangePaymentRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live payment stats, seeded once from the database then updated by every committed payment,
+ * so that reading them never hits the database. Changes are pushed to {@code /topic/stats}, at most
+ * once per {@value #PUBLISH_INTERVAL_IN_MS} ms.
+ */
+@Slf4j
+@Service
+@DependsOn("dailyVolumeBackfill")
+public class StatsAggregator {
+
+    private static final long DAY_IN_MS = TimeUnit.DAYS.toMillis(1);
+
+    private static final int CHART_DAYS = 11;
+    private static final int ATH_DAYS = 365;
+    private static final int TRACKED_DAYS = ATH_DAYS + 1;
+
+    private static final long PUBLISH_INTERVAL_IN_MS = 1000;
+
+    @Autowired
+    private ExchangeToExchangePaymentRepository repository;
+
+    @Autowired
+    private DailyVolumeRollupRepository dailyVolumeRepository;
+
+    @Autowired
+    private SimpMessageSendingOperations messagingTemplate;
+
+    private final double[] dayVolumes = new double[TRACKED_DAYS];
+    private final long[] daySlots = new long[TRACKED_DAYS];
+
+    private final PriorityQueue<CorridorPayment> lastDayPayments = new PriorityQueue<>(Comparator.comparingLong(payment -> payment.timestamp));
+    private final Map<String, Double> lastDayVolumes = new HashMap<>();
+    private final Map<String, Integer> lastDayCounts = new HashMap<>();
+
+    private double allTimeVolume;
+    private Long firstTimestamp;
+
+    private boolean changed;
+    private long lastPublishedAt;
+
+    @PostConstruct
+    public synchronized void init() {
+        Arrays.fill(daySlots, Long.MIN_VALUE);
+
+        long today = epochDay(System.currentTimeMillis());
+
+        for (DailyVolume dailyVolume : dailyVolumeRepository.getDailyVolumesBetween(today - ATH_DAYS, today)) {
+            if (dailyVolume.getVolume() != null) {
+                addToDay(dailyVolume.getDay(), dailyVolume.getVolume());
+            }
+        }
+
+        Double volume = dailyVolumeRepository.getAllTimeVolume();
+        allTimeVolume = volume == null ? 0 : volume;
+        firstTimestamp = repository.getFirstTimestamp();
+
+        long now = System.currentTimeMillis();
+        repository.findByDate(now - DAY_IN_MS, now).forEach(this::addToLastDay);
+
+        log.info("Stats seeded with {} payments of the last 24h", lastDayPayments.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPaymentSaved(ExchangeToExchangePayment payment) {
+        allTimeVolume += payment.getUsdValue();
+
+        if (firstTimestamp == null || payment.getTimestamp() < firstTimestamp) {
+            firstTimestamp = payment.getTimestamp();
+        }
+
+        addToDay(epochDay(payment.getTimestamp()), payment.getUsdValue());
+        addToLastDay(payment);
+
+        changed = true;
+        publishIfDue();
+    }
+
+    /**
+     * Pushes the stats when payments were added since the last push, unless it happened less than
+     * {@value #PUBLISH_INTERVAL_IN_MS} ms ago: payments saved meanwhile are then pushed on the next run.
+     */
+    @Scheduled(fixedDelay = PUBLISH_INTERVAL_IN_MS)
+    public void publishIfDue() {
+        Stats stats;
+
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+
+            if (!changed || now - lastPublishedAt < PUBLISH_INTERVAL_IN_MS) {
+                return;
+            }
+
+            stats = getStats();
+            changed = false;
+            lastPublishedAt = now;
+        }
+
+        if (stats != null) {
+            messagingTemplate.convertAndSend("/topic/stats", stats);
+        }
+    }
+
+    public synchronized Stats getStats() {
+        if (firstTimestamp == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        long today = epochDay(now);
+
+        evictBefore(now - DAY_IN_MS);
+
+        Map<String, Double> topVolumes = new HashMap<>();
+        lastDayVolumes.forEach((corridor, volume) -> topVolumes.put(corridor, roundVolume(volume)));
+
+        String[] days = new String[CHART_DAYS];
+        double[] volumePerDay = new double[CHART_DAYS];
+
+        for (int i = CHART_DAYS - 1; i >= 0; i--) {
+            volumePerDay[CHART_DAYS - 1 - i] = roundVolume(dayVolume(today - i));
+            days[CHART_DAYS - 1 - i] = i == 0 ? "Today" : LocalDate.ofEpochDay(today - i).toString().substring(2, 10);
+        }
+
+        double athDayVolume = 0;
+        for (long day = today - ATH_DAYS; day < today; day++) {
+            athDayVolume = Math.max(athDayVolume, dayVolume(day));
+        }
+
+        return Stats.builder()
+                .allTimeVolume(roundVolume(allTimeVolume))
+                .todayVolume(volumePerDay[CHART_DAYS - 1])
+                .topVolumes(topVolumes)
+                .allTimeFrom(OffsetDateTime.ofInstant(Instant.ofEpochMilli(firstTimestamp), ZoneOffset.UTC))
+                .last5DaysOdlVolume(volumePerDay)
+                .athDaylyVolume(athDayVolume)
+                .days(days)
+                .build();
+    }
+
+    private void addToDay(long epochDay, double volume) {
+        int slot = (int) Math.floorMod(epochDay, (long) TRACKED_DAYS);
+
+        if (daySlots[slot] != epochDay) {
+            if (daySlots[slot] > epochDay) {
+                return;
+            }
+            daySlots[slot] = epochDay;
+            dayVolumes[slot] = 0;
+        }
+
+        dayVolumes[slot] += volume;
+    }
+
+    private double dayVolume(long epochDay) {
+        int slot = (int) Math.floorMod(epochDay, (long) TRACKED_DAYS);
+        return daySlots[slot] == epochDay ? dayVolumes[slot] : 0;
+    }
+
+    private void addToLastDay(ExchangeToExchangePayment payment) {
+        if (payment.getSourceFiat() == null || payment.getDestinationFiat() == null
+                || payment.getSourceFiat().equals(payment.getDestinationFiat())
+                || payment.getTimestamp() < System.currentTimeMillis() - DAY_IN_MS) {
+            return;
+        }
+
+        CorridorPayment corridorPayment = new CorridorPayment(payment.getTimestamp(), payment.getSourceFiat() + "-" + payment.getDestinationFiat(), payment.getUsdValue());
+
+        lastDayPayments.add(corridorPayment);
+        lastDayVolumes.merge(corridorPayment.corridor, corridorPayment.usdValue, Double::sum);
+        lastDayCounts.merge(corridorPayment.corridor, 1, Integer::sum);
+    }
+
+    private void evictBefore(long limit) {
+        while (!lastDayPayments.isEmpty() && lastDayPayments.peek().timestamp < limit) {
+            CorridorPayment payment = lastDayPayments.poll();
+
+            if (lastDayCounts.merge(payment.corridor, -1, Integer::sum) == 0) {
+                lastDayCounts.remove(payment.corridor);
+                lastDayVolumes.remove(payment.corridor);
+            } else {
+                lastDayVolumes.merge(payment.corridor, -payment.usdValue, Double::sum);
+            }
+        }
+    }
+
+    private static long epochDay(long timestamp) {
+        return Math.floorDiv(timestamp, DAY_IN_MS);
+    }
+
+    private static double roundVolume(double volume) {
+        return Math.round(volume * 100.0) / 100.0;
+    }
+
+    private static class CorridorPayment {
+
+        private final long timestamp;
+        private final String corridor;
+        private final double usdValue;
+
+        private CorridorPayment(long timestamp, String corridor, double usdValue) {
+            this.timestamp = timestamp;
+            this.corridor = corridor;
+            this.usdValue = usdValue;
+        }
+    }
+}
@@ -1,29 +1,40 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.web.client.RestTemplate;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
+import space.xrapid.domain.TradeCursor;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 
 public interface TradeService {
 
-    RestTemplate restTemplate = new RestTemplate();
+    CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin);
 
-    List<Trade> fetchTrades(OffsetDateTime begin);
+    /**
+     * Fetches trades executed since the cursor, overlapping it by one second as most APIs have second precision.
+     * Exchanges offering a trade id or nanosecond cursor override it to only return the delta.
+     */
+    default CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin, TradeCursor cursor) {
+        OffsetDateTime since = cursor.getDateTime().minusSeconds(1);
+        return fetchTrades(since.isAfter(begin) ? since : begin);
+    }
+
+    /**
+     * Delay between two trades polls of this exchange, shorter for the most active books.
+     */
+    default Duration getPollingInterval() {
+        return Duration.ofSeconds(25);
+    }
 
-    default HttpEntity getEntity() {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setAccept(Arrays.asList(MediaType.APPLICATION_JSON, MediaType.APPLICATION_JSON_UTF8));
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.add("user-agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/54.0.2840.99 Safari/537.36");
-        return  new HttpEntity("parameters", headers);
+    /**
+     * Trades polls allowed per minute, whatever the number of pages a poll requests.
+     */
+    default int getMaxPollsPerMinute() {
+        return 6;
     }
 
     default Predicate<Trade> filterTradePerDate(OffsetDateTime begin) {
@@ -1,15 +1,15 @@
 package space.xrapid.service;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import space.xrapid.domain.Exchange;
 import space.xrapid.domain.Trade;
+import space.xrapid.util.JsonHttpClient;
+import space.xrapid.util.TradeTimestamps;
 
 import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -18,25 +18,25 @@ public class WazirxService implements TradeService {
 
     private String apiUrl = "https://api.wazirx.com/api/v2/trades?market=xrpinr";
 
-    @Override
-    public List<Trade> fetchTrades(OffsetDateTime begin) {
-        HttpEntity<String> entity = getEntity();
-
-        ResponseEntity<space.xrapid.domain.wazirx.Trade[]> response = restTemplate.exchange(apiUrl,
-                HttpMethod.GET, entity, space.xrapid.domain.wazirx.Trade[].class);
-
+    @Autowired
+    private JsonHttpClient httpClient;
 
-        return Stream.of(response.getBody())
-                .map(this::mapTrade)
-                .filter(filterTradePerDate(begin))
-                .collect(Collectors.toList());
+    @Override
+    public CompletableFuture<List<Trade>> fetchTrades(OffsetDateTime begin) {
+        return httpClient.get(apiUrl, space.xrapid.domain.wazirx.Trade[].class)
+                .thenApply(trades -> Stream.of(trades)
+                        .map(this::mapTrade)
+                        .filter(filterTradePerDate(begin))
+                        .collect(Collectors.toList()));
     }
 
     private Trade mapTrade(space.xrapid.domain.wazirx.Trade trade) {
+        long timestamp = TradeTimestamps.parseEpochMilli(trade.getCreatedAt());
+
         return Trade.builder().amount(trade.getVolume())
                 .exchange(Exchange.WAZIRX)
-                .timestamp(OffsetDateTime.parse(trade.getCreatedAt(), DateTimeFormatter.ISO_OFFSET_DATE_TIME).toEpochSecond() * 1000)
-                .dateTime(OffsetDateTime.parse(trade.getCreatedAt(), DateTimeFormatter.ISO_OFFSET_DATE_TIME))
+                .timestamp(timestamp)
+                .dateTime(TradeTimestamps.ofEpochMilli(timestamp))
                 .orderId(trade.getId().toString())
                 .rate(Double.valueOf(trade.getPrice()))
                 .side("buy".equals(trade.getSide()) ? "buy" : "sell")
@@ -1,26 +1,51 @@
 package space.xrapid.service;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
-import space.xrapid.domain.Exchange;
 import space.xrapid.domain.ripple.Payment;
 import space.xrapid.domain.ripple.Payments;
+import space.xrapid.domain.ripple.PaymentsPageReader;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Queue;
+import java.util.concurrent.*;
 
 @Service
-public class XrpLedgerService {
+@ConditionalOnProperty(name = "xrapid.xrpl.ingestion", havingValue = "rest", matchIfMissing = true)
+public class XrpLedgerService implements XrplPaymentSource {
 
     private String xrplApiUrl = "https://data.ripple.com/v2/payments/xrp?type=Payment&start={START}&end={END}&limit=1000&descending=false";
 
     private RestTemplate restTemplate = new RestTemplate();
 
+    private PaymentsPageReader pageReader = new PaymentsPageReader(150);
+
+    @Value("${xrapid.xrpl.prefetch-pages:2}")
+    private int prefetchPages;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        prefetchPages = Math.max(2, prefetchPages);
+        executor = Executors.newFixedThreadPool(prefetchPages, new CustomizableThreadFactory("xrpl-page-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
     public List<Payment> fetchOdlCandidatePayments(OffsetDateTime startOffset, OffsetDateTime endOffset) {
         List<Payment> payments = new ArrayList<>();
 
@@ -31,32 +56,91 @@ public class XrpLedgerService {
                 .replace("{START}", startAsString)
                 .replace("{END}", endAsString);
 
-        String urlWithMarker = url + "&marker={MARKER}";
+        Pager pager = new Pager(url + "&marker={MARKER}");
+        pager.fetch(url);
 
-        boolean hasNext = true;
+        try {
+            boolean hasNext = true;
 
-        while (hasNext) {
-            ResponseEntity<Payments> response = restTemplate.exchange(url,
-                    HttpMethod.GET, null, Payments.class);
+            while (hasNext) {
+                Payments page = pager.next();
 
-            hasNext = hasNext(response);
+                hasNext = hasNext(page);
 
-            if (hasNext) {
-                url = urlWithMarker.replace("{MARKER}", response.getBody().getMarker());
+                payments.addAll(page.getPayments());
             }
-
-            payments.addAll(response.getBody().getPayments().stream()
-                    .filter(p -> p.getAmount() > 150)
-                    .filter(p -> Exchange.byAddress(p.getSource()) != null)
-                    .filter(p -> Exchange.byAddress(p.getDestination()) != null)
-                    .collect(Collectors.toList()));
-
+        } finally {
+            pager.close();
         }
 
         return payments;
     }
 
-    private boolean hasNext(ResponseEntity<Payments> response) {
-        return (response.getBody().getMarker() != null && !response.getBody().getMarker().isEmpty());
+    private boolean hasNext(Payments page) {
+        return (page.getMarker() != null && !page.getMarker().isEmpty());
+    }
+
+    /**
+     * Chains page requests of one window: the request for the next marker is issued while the current page
+     * is still being parsed, at most {@code prefetchPages} pages being fetched or waiting to be consumed.
+     */
+    private class Pager {
+
+        private final String urlWithMarker;
+
+        private final Semaphore lookAhead = new Semaphore(prefetchPages);
+
+        private final Queue<Future<Payments>> pages = new ConcurrentLinkedQueue<>();
+
+        private volatile boolean closed;
+
+        private Pager(String urlWithMarker) {
+            this.urlWithMarker = urlWithMarker;
+        }
+
+        private void fetch(String url) {
+            try {
+                lookAhead.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (closed) {
+                lookAhead.release();
+                return;
+            }
+
+            pages.add(executor.submit(() -> restTemplate.execute(url, HttpMethod.GET, null,
+                    response -> pageReader.read(response.getBody(), marker -> fetch(urlWithMarker.replace("{MARKER}", marker))))));
+        }
+
+        private Payments next() {
+            Future<Payments> page = pages.poll();
+
+            if (page == null) {
+                throw new IllegalStateException("XRPL page request was not issued");
+            }
+
+            try {
+                return page.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while fetching XRPL payments", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } finally {
+                lookAhead.release();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            pages.forEach(page -> page.cancel(true));
+            lookAhead.release(prefetchPages);
+        }
     }
 }
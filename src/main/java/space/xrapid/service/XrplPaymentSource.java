@@ -0,0 +1,15 @@
+package space.xrapid.service;
+
+import space.xrapid.domain.ripple.Payment;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface XrplPaymentSource {
+
+    /**
+     * @return XRP payments above the ODL threshold between two known exchange addresses, executed between
+     * {@code startOffset} and {@code endOffset}; reading the same window again returns the same payments
+     */
+    List<Payment> fetchOdlCandidatePayments(OffsetDateTime startOffset, OffsetDateTime endOffset);
+}
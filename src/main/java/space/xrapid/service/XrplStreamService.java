@@ -0,0 +1,217 @@
+package space.xrapid.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.WebSocketClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import space.xrapid.domain.Exchange;
+import space.xrapid.domain.ripple.Payment;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.websocket.ContainerProvider;
+import javax.websocket.WebSocketContainer;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscribes to the transactions stream of a rippled server and buffers validated XRP payments
+ * between known exchanges, in arrival order.
+ * <p>
+ * Reading a window leaves the buffer untouched, so that a failed cycle can read it again: payments
+ * only leave the buffer once executed more than {@value #RETAINED_WINDOWS} windows before the window read.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "xrapid.xrpl.ingestion", havingValue = "stream")
+public class XrplStreamService extends TextWebSocketHandler implements XrplPaymentSource {
+
+    private static final long RIPPLE_EPOCH_IN_SECONDS = 946684800L;
+    private static final double DROPS_PER_XRP = 1000000d;
+    private static final double MIN_AMOUNT = 150;
+
+    private static final int RETAINED_WINDOWS = 2;
+
+    private static final String SUBSCRIBE_COMMAND = "{\"command\":\"subscribe\",\"streams\":[\"transactions\"]}";
+
+    @Value("${xrapid.xrpl.stream.url:wss://s1.ripple.com}")
+    private String url;
+
+    @Value("${xrapid.xrpl.stream.buffer-size:10000}")
+    private int bufferSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Deque<BufferedPayment> buffer = new ArrayDeque<>();
+
+    private WebSocketClient client;
+
+    private volatile WebSocketSession session;
+
+    @PostConstruct
+    public void init() {
+        WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+        container.setDefaultMaxTextMessageBufferSize(1024 * 1024);
+        client = new StandardWebSocketClient(container);
+
+        connect();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (session != null) {
+            session.close();
+        }
+    }
+
+    @Scheduled(fixedDelay = 10000)
+    public void ensureConnected() {
+        if (session == null || !session.isOpen()) {
+            connect();
+        }
+    }
+
+    /**
+     * @return buffered payments executed from {@code startOffset} included to {@code endOffset} excluded
+     */
+    @Override
+    public List<Payment> fetchOdlCandidatePayments(OffsetDateTime startOffset, OffsetDateTime endOffset) {
+        long start = startOffset.toInstant().toEpochMilli();
+        long end = endOffset.toInstant().toEpochMilli();
+        long evictBefore = start - RETAINED_WINDOWS * (end - start);
+
+        List<Payment> payments = new ArrayList<>();
+
+        synchronized (buffer) {
+            while (!buffer.isEmpty() && buffer.peekFirst().executedAt < evictBefore) {
+                buffer.pollFirst();
+            }
+
+            for (BufferedPayment bufferedPayment : buffer) {
+                if (bufferedPayment.executedAt >= start && bufferedPayment.executedAt < end) {
+                    payments.add(bufferedPayment.payment);
+                }
+            }
+        }
+
+        return payments;
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        BufferedPayment payment = toPayment(objectMapper.readTree(message.getPayload()));
+
+        if (payment == null) {
+            return;
+        }
+
+        synchronized (buffer) {
+            if (buffer.size() >= bufferSize) {
+                log.warn("XRPL stream buffer full, dropping payment {}", buffer.pollFirst().payment.getTxHash());
+            }
+            buffer.addLast(payment);
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.error("XRPL stream error on {}", url, exception);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        log.warn("XRPL stream closed on {}: {}", url, status);
+        this.session = null;
+    }
+
+    private synchronized void connect() {
+        try {
+            WebSocketSession newSession = client.doHandshake(this, url).get(10, TimeUnit.SECONDS);
+            newSession.sendMessage(new TextMessage(SUBSCRIBE_COMMAND));
+            session = newSession;
+
+            log.info("Subscribed to XRPL transactions stream on {}", url);
+        } catch (Exception e) {
+            log.error("Unable to subscribe to XRPL transactions stream on {}", url, e);
+        }
+    }
+
+    private BufferedPayment toPayment(JsonNode message) {
+        JsonNode transaction = message.path("transaction");
+
+        if (!"transaction".equals(message.path("type").asText())
+                || !message.path("validated").asBoolean()
+                || !"tesSUCCESS".equals(message.path("engine_result").asText())
+                || !"Payment".equals(transaction.path("TransactionType").asText())) {
+            return null;
+        }
+
+        JsonNode amount = transaction.path("Amount");
+        JsonNode deliveredAmount = message.path("meta").path("delivered_amount");
+
+        if (!amount.isTextual() || !deliveredAmount.isTextual()) {
+            return null;
+        }
+
+        double amountInXrp;
+        double deliveredAmountInXrp;
+
+        try {
+            amountInXrp = Long.parseLong(amount.asText()) / DROPS_PER_XRP;
+            deliveredAmountInXrp = Long.parseLong(deliveredAmount.asText()) / DROPS_PER_XRP;
+        } catch (NumberFormatException e) {
+            log.debug("Skipping XRPL payment {} with amount {} delivered {}", transaction.path("hash").asText(), amount, deliveredAmount);
+            return null;
+        }
+
+        String source = transaction.path("Account").asText();
+        String destination = transaction.path("Destination").asText();
+
+        if (amountInXrp <= MIN_AMOUNT || Exchange.byAddress(source) == null || Exchange.byAddress(destination) == null) {
+            return null;
+        }
+
+        Payment payment = new Payment();
+        payment.setAmount(amountInXrp);
+        payment.setDeliveredAmount(deliveredAmountInXrp);
+        payment.setCurrency("XRP");
+        payment.setSource(source);
+        payment.setDestination(destination);
+        payment.setDestinationTag(transaction.has("DestinationTag") ? transaction.get("DestinationTag").asLong() : null);
+        payment.setTxHash(transaction.path("hash").asText());
+        payment.setLedgerIndex(message.path("ledger_index").asInt());
+        long executedAtInSeconds = RIPPLE_EPOCH_IN_SECONDS + transaction.path("date").asLong();
+        payment.setExecutedTime(OffsetDateTime.ofInstant(Instant.ofEpochSecond(executedAtInSeconds), ZoneOffset.UTC)
+                .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+
+        return new BufferedPayment(TimeUnit.SECONDS.toMillis(executedAtInSeconds), payment);
+    }
+
+    private static class BufferedPayment {
+
+        private final long executedAt;
+        private final Payment payment;
+
+        private BufferedPayment(long executedAt, Payment payment) {
+            this.executedAt = executedAt;
+            this.payment = payment;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package space.xrapid.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Concurrent set of transaction hashes forgetting each hash once the retention is over.
+ * <p>
+ * Hashes are stored as their 32 raw bytes and grouped in one bucket per minute of insertion,
+ * whole buckets being dropped when they get older than the retention.
+ */
+public class ExpiringTransactionHashSet {
+
+    private static final long BUCKET_SIZE_IN_MILLIS = 60000;
+
+    private final long retainedBuckets;
+
+    private final Map<Object, Long> bucketByHash = new ConcurrentHashMap<>();
+
+    private final ConcurrentNavigableMap<Long, Set<Object>> buckets = new ConcurrentSkipListMap<>();
+
+    public ExpiringTransactionHashSet(Duration retention) {
+        this.retainedBuckets = Math.max(1, retention.toMillis() / BUCKET_SIZE_IN_MILLIS);
+    }
+
+    public boolean contains(String transactionHash) {
+        evict();
+        return transactionHash != null && bucketByHash.containsKey(toKey(transactionHash));
+    }
+
+    public void add(String transactionHash) {
+        if (transactionHash == null) {
+            return;
+        }
+
+        long bucket = currentBucket();
+        Object key = toKey(transactionHash);
+
+        buckets.computeIfAbsent(bucket, b -> ConcurrentHashMap.newKeySet()).add(key);
+        bucketByHash.put(key, bucket);
+
+        evict();
+    }
+
+    public int size() {
+        return bucketByHash.size();
+    }
+
+    private void evict() {
+        ConcurrentNavigableMap<Long, Set<Object>> expired = buckets.headMap(currentBucket() - retainedBuckets);
+
+        expired.forEach((bucket, keys) -> keys.forEach(key -> bucketByHash.remove(key, bucket)));
+        expired.clear();
+    }
+
+    private long currentBucket() {
+        return System.currentTimeMillis() / BUCKET_SIZE_IN_MILLIS;
+    }
+
+    private static Object toKey(String transactionHash) {
+        if (transactionHash.length() != 64) {
+            return transactionHash;
+        }
+
+        long[] words = new long[4];
+
+        for (int i = 0; i < 64; i++) {
+            int digit = Character.digit(transactionHash.charAt(i), 16);
+            if (digit < 0) {
+                return transactionHash;
+            }
+            words[i / 16] = (words[i / 16] << 4) | digit;
+        }
+
+        return new HashKey(words);
+    }
+
+    private static final class HashKey {
+        private final long first;
+        private final long second;
+        private final long third;
+        private final long fourth;
+
+        private HashKey(long[] words) {
+            this.first = words[0];
+            this.second = words[1];
+            this.third = words[2];
+            this.fourth = words[3];
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof HashKey)) {
+                return false;
+            }
+
+            HashKey key = (HashKey) other;
+            return first == key.first && second == key.second && third == key.third && fourth == key.fourth;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(first ^ fourth);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package space.xrapid.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.StatusLine;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.nio.client.HttpAsyncClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Gets JSON documents through the non blocking HTTP client, asking for gzip compressed responses
+ * and inflating them as the client does not do it by itself.
+ * <p>
+ * Responses are read on a dedicated executor, to keep the few IO reactor threads free for the sockets.
+ */
+public class JsonHttpClient {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/54.0.2840.99 Safari/537.36";
+
+    private final HttpAsyncClient httpClient;
+
+    private final ObjectMapper objectMapper;
+
+    private final Executor parseExecutor;
+
+    public JsonHttpClient(HttpAsyncClient httpClient, ObjectMapper objectMapper, Executor parseExecutor) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.parseExecutor = parseExecutor;
+    }
+
+    /**
+     * @return the response body read as the given type, failing with an {@link HttpResponseException}
+     * when the status is not 2xx and with an {@link IOException} when the body is empty
+     */
+    public <T> CompletableFuture<T> get(String url, Class<T> type) {
+        HttpGet request = new HttpGet(url);
+        request.setHeader(HttpHeaders.ACCEPT, "application/json");
+        request.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        request.setHeader(HttpHeaders.USER_AGENT, USER_AGENT);
+
+        CompletableFuture<T> body = new CompletableFuture<>();
+
+        httpClient.execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                try {
+                    parseExecutor.execute(() -> {
+                        try {
+                            body.complete(read(url, response, type));
+                        } catch (IOException | RuntimeException e) {
+                            body.completeExceptionally(e);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    body.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                body.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                body.cancel(false);
+            }
+        });
+
+        return body;
+    }
+
+    private <T> T read(String url, HttpResponse response, Class<T> type) throws IOException {
+        StatusLine status = response.getStatusLine();
+        if (status.getStatusCode() < 200 || status.getStatusCode() >= 300) {
+            throw new HttpResponseException(status.getStatusCode(), "GET " + url + " returned " + status);
+        }
+
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            throw new IOException("GET " + url + " returned no body");
+        }
+
+        Header encoding = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+        boolean gzip = encoding != null && encoding.getValue().toLowerCase().contains("gzip");
+
+        try (InputStream content = gzip ? new GZIPInputStream(entity.getContent()) : entity.getContent();
+             JsonParser parser = objectMapper.getFactory().createParser(content)) {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.VALUE_NULL) {
+                throw new IOException("GET " + url + " returned an empty body");
+            }
+
+            return objectMapper.readValue(parser, type);
+        }
+    }
+}
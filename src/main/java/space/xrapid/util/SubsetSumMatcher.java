@@ -0,0 +1,258 @@
+package space.xrapid.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the smallest combination of amounts whose sum is within {@link #ACCEPTANCE} of a target,
+ * falling back to the closest combination within {@link #TOLERANCE}.
+ * <p>
+ * Meet in the middle: amounts are sorted then dealt alternately into two halves. The combinations of each
+ * half are enumerated by increasing size, as long as their sum does not exceed the target, then every
+ * combination of the first half is completed by the combination of the second half of each size whose sum
+ * is the closest to the rest, found by binary search.
+ * <p>
+ * At most {@link #MAX_HALF_COMBINATIONS} combinations are enumerated per half, which bounds the search to tens of
+ * milliseconds whatever the book: on dense books, the largest combinations are then only partly explored.
+ */
+public class SubsetSumMatcher {
+
+    private static final double TOLERANCE = 0.05;
+    private static final double ACCEPTANCE = 0.02;
+
+    private static final int MAX_HALF_COMBINATIONS = 1 << 18;
+
+    private final double target;
+    private final int maxSize;
+
+    private final Half left;
+    private final Half right;
+
+    private int bestLeft = -1;
+    private int bestRightSize;
+    private double bestRightSum;
+    private int bestSize;
+    private double bestDiff = Double.MAX_VALUE;
+
+    private SubsetSumMatcher(double[] candidates, double target, int maxSize) {
+        this.target = target;
+        this.maxSize = maxSize;
+
+        int[] positions = IntStream.range(0, candidates.length)
+                .filter(i -> candidates[i] >= 0 && candidates[i] <= target + TOLERANCE)
+                .boxed()
+                .sorted(Comparator.comparingDouble(i -> candidates[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        this.left = new Half(candidates, positions, 0, target + TOLERANCE, maxSize);
+        this.right = new Half(candidates, positions, 1, target + TOLERANCE, maxSize);
+        this.right.sortLevels();
+    }
+
+    /**
+     * @return indexes in {@code amounts} of the matching combination, in ascending order, or an empty array
+     */
+    public static int[] match(double[] amounts, double target, int maxSize) {
+        SubsetSumMatcher matcher = new SubsetSumMatcher(amounts, target, maxSize);
+        return matcher.search();
+    }
+
+    private int[] search() {
+        for (int combination = 0; combination < left.count; combination++) {
+            int leftSize = left.sizes[combination];
+
+            if (bestDiff <= ACCEPTANCE && leftSize >= bestSize) {
+                continue;
+            }
+
+            double rest = target - left.sums[combination];
+
+            for (int rightSize = leftSize == 0 ? 1 : 0; rightSize <= maxSize - leftSize && rightSize < right.levels; rightSize++) {
+                if (bestDiff <= ACCEPTANCE && leftSize + rightSize >= bestSize) {
+                    break;
+                }
+
+                int start = right.levelStarts[rightSize];
+                int end = right.levelStarts[rightSize + 1];
+                if (start == end || rest + TOLERANCE < right.sortedSums[start] || rest - TOLERANCE > right.sortedSums[end - 1]) {
+                    continue;
+                }
+
+                int insertion = right.insertionPoint(rightSize, rest);
+
+                for (int i = Math.max(start, insertion - 1); i <= insertion && i < end; i++) {
+                    evaluate(combination, rightSize, right.sortedSums[i]);
+                }
+            }
+        }
+
+        if (bestLeft < 0) {
+            return new int[0];
+        }
+
+        int[] indexes = IntStream.concat(left.positions(bestLeft), right.positions(right.find(bestRightSize, bestRightSum))).toArray();
+        Arrays.sort(indexes);
+
+        return indexes;
+    }
+
+    private void evaluate(int leftCombination, int rightSize, double rightSum) {
+        int size = left.sizes[leftCombination] + rightSize;
+        double diff = Math.abs(left.sums[leftCombination] + rightSum - target);
+
+        if (diff > TOLERANCE) {
+            return;
+        }
+
+        boolean accepted = diff <= ACCEPTANCE;
+        boolean bestAccepted = bestDiff <= ACCEPTANCE;
+
+        boolean better;
+        if (accepted != bestAccepted) {
+            better = accepted;
+        } else if (accepted) {
+            better = size < bestSize || size == bestSize && diff < bestDiff;
+        } else {
+            better = diff < bestDiff || diff == bestDiff && size < bestSize;
+        }
+
+        if (better) {
+            bestLeft = leftCombination;
+            bestRightSize = rightSize;
+            bestRightSum = rightSum;
+            bestSize = size;
+            bestDiff = diff;
+        }
+    }
+
+    /**
+     * Combinations of every other sorted amount, each one stored as a previous combination plus one amount,
+     * the empty combination first, then by increasing size.
+     */
+    private static class Half {
+
+        private final double[] amounts;
+        private final int[] positions;
+
+        private int count;
+        private double[] sums = new double[64];
+        private int[] parents = new int[64];
+        private int[] lasts = new int[64];
+        private byte[] sizes = new byte[64];
+
+        private int levels;
+        private final int[] levelStarts;
+
+        private double[] sortedSums;
+
+        private Half(double[] candidates, int[] sortedPositions, int offset, double max, int maxSize) {
+            this.positions = IntStream.range(0, sortedPositions.length)
+                    .filter(i -> i % 2 == offset)
+                    .map(i -> sortedPositions[i])
+                    .toArray();
+            this.amounts = Arrays.stream(positions).mapToDouble(i -> candidates[i]).toArray();
+            this.levelStarts = new int[maxSize + 2];
+
+            add(-1, -1, 0, 0);
+            levels = 1;
+            levelStarts[1] = count;
+
+            enumerate(max, maxSize);
+        }
+
+        private void enumerate(double max, int maxSize) {
+            for (int size = 1; size <= maxSize && levelStarts[size - 1] < levelStarts[size]; size++) {
+                for (int parent = levelStarts[size - 1]; parent < levelStarts[size]; parent++) {
+                    for (int i = lasts[parent] + 1; i < amounts.length; i++) {
+                        if (i > lasts[parent] + 1 && amounts[i] == amounts[i - 1]) {
+                            continue;
+                        }
+
+                        double sum = sums[parent] + amounts[i];
+                        if (sum > max) {
+                            break;
+                        }
+
+                        if (count == MAX_HALF_COMBINATIONS) {
+                            levelStarts[++levels] = count;
+                            return;
+                        }
+
+                        add(parent, i, sum, size);
+                    }
+                }
+
+                levelStarts[++levels] = count;
+            }
+        }
+
+        private void add(int parent, int last, double sum, int size) {
+            if (count == sums.length) {
+                int capacity = Math.min(MAX_HALF_COMBINATIONS, count * 2);
+                sums = Arrays.copyOf(sums, capacity);
+                parents = Arrays.copyOf(parents, capacity);
+                lasts = Arrays.copyOf(lasts, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+            }
+
+            sums[count] = sum;
+            parents[count] = parent;
+            lasts[count] = last;
+            sizes[count] = (byte) size;
+            count++;
+        }
+
+        /**
+         * Sorts the sums of each size, for the binary searches.
+         */
+        private void sortLevels() {
+            sortedSums = Arrays.copyOf(sums, count);
+
+            for (int size = 0; size < levels; size++) {
+                Arrays.sort(sortedSums, levelStarts[size], levelStarts[size + 1]);
+            }
+        }
+
+        /**
+         * @return position in {@link #sortedSums} of the first sum of this size not below {@code sum}
+         */
+        private int insertionPoint(int size, double sum) {
+            int low = levelStarts[size];
+            int high = levelStarts[size + 1];
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+
+                if (sortedSums[middle] < sum) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * @return the combination of this size with exactly this sum
+         */
+        private int find(int size, double sum) {
+            return IntStream.range(levelStarts[size], levelStarts[size + 1])
+                    .filter(combination -> sums[combination] == sum)
+                    .findFirst()
+                    .getAsInt();
+        }
+
+        private IntStream positions(int combination) {
+            IntStream.Builder indexes = IntStream.builder();
+
+            for (int current = combination; lasts[current] >= 0; current = parents[current]) {
+                indexes.add(positions[lasts[current]]);
+            }
+
+            return indexes.build();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package space.xrapid.util;
+
+/**
+ * Token bucket refilled continuously, allowing bursts up to its capacity.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerMilli;
+
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(int capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerMilli = refillPerSecond / 1000;
+        this.tokens = capacity;
+        this.lastRefill = System.currentTimeMillis();
+    }
+
+    public synchronized boolean tryAcquire() {
+        long now = System.currentTimeMillis();
+
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerMilli);
+        lastRefill = now;
+
+        if (tokens < 1) {
+            return false;
+        }
+
+        tokens--;
+        return true;
+    }
+}
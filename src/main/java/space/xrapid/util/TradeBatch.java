@@ -0,0 +1,111 @@
+package space.xrapid.util;
+
+import space.xrapid.domain.Exchange;
+import space.xrapid.domain.Trade;
+
+import java.util.*;
+
+/**
+ * Column oriented copy of a set of trades, sorted by exchange, side and execution time, read by the
+ * corridor matching without touching the boxed fields of {@link Trade}.
+ * <p>
+ * Order ids are interned into int handles, equal ids sharing the same handle whatever their exchange,
+ * {@link #NO_ORDER_ID} standing for a trade without id. The original trades are only kept for output.
+ */
+public class TradeBatch {
+
+    public static final byte BUY = 0;
+    public static final byte SELL = 1;
+    public static final byte OTHER_SIDE = 2;
+
+    public static final int NO_ORDER_ID = -1;
+
+    private final long[] timestamps;
+    private final double[] amounts;
+    private final byte[] sides;
+    private final short[] exchanges;
+    private final int[] orderIds;
+    private final Trade[] trades;
+
+    private final Map<String, Integer> handleByOrderId = new HashMap<>();
+
+    public TradeBatch(Collection<Trade> unsorted) {
+        trades = unsorted.stream()
+                .filter(trade -> trade.getExchange() != null && trade.getDateTime() != null && trade.getAmount() != null)
+                .sorted(Comparator.comparingInt((Trade trade) -> trade.getExchange().ordinal())
+                        .thenComparingInt(trade -> side(trade.getSide()))
+                        .thenComparingLong(TradeIndex::toEpochMilli))
+                .toArray(Trade[]::new);
+
+        timestamps = new long[trades.length];
+        amounts = new double[trades.length];
+        sides = new byte[trades.length];
+        exchanges = new short[trades.length];
+        orderIds = new int[trades.length];
+
+        for (int i = 0; i < trades.length; i++) {
+            Trade trade = trades[i];
+
+            timestamps[i] = TradeIndex.toEpochMilli(trade);
+            amounts[i] = trade.getAmount();
+            sides[i] = side(trade.getSide());
+            exchanges[i] = (short) trade.getExchange().ordinal();
+            orderIds[i] = trade.getOrderId() == null
+                    ? NO_ORDER_ID
+                    : handleByOrderId.computeIfAbsent(trade.getOrderId(), orderId -> handleByOrderId.size());
+        }
+    }
+
+    public static byte side(String side) {
+        if ("buy".equals(side)) {
+            return BUY;
+        }
+        if ("sell".equals(side)) {
+            return SELL;
+        }
+        return OTHER_SIDE;
+    }
+
+    public int size() {
+        return trades.length;
+    }
+
+    public long timestamp(int position) {
+        return timestamps[position];
+    }
+
+    public double amount(int position) {
+        return amounts[position];
+    }
+
+    public byte side(int position) {
+        return sides[position];
+    }
+
+    public int exchange(int position) {
+        return exchanges[position];
+    }
+
+    public int orderId(int position) {
+        return orderIds[position];
+    }
+
+    public Trade trade(int position) {
+        return trades[position];
+    }
+
+    public List<Trade> trades(int[] positions) {
+        List<Trade> selected = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            selected.add(trades[position]);
+        }
+        return selected;
+    }
+
+    /**
+     * @return handle of the order id, or {@link #NO_ORDER_ID} when no trade of the batch carries it
+     */
+    public int handleOf(String orderId) {
+        return orderId == null ? NO_ORDER_ID : handleByOrderId.getOrDefault(orderId, NO_ORDER_ID);
+    }
+}
@@ -0,0 +1,89 @@
+package space.xrapid.util;
+
+import space.xrapid.domain.Exchange;
+import space.xrapid.domain.Trade;
+
+import java.util.*;
+
+/**
+ * Immutable view of a set of trades, stored as a {@link TradeBatch} grouped by exchange and side and sorted
+ * by execution time, answering time range lookups with a binary search.
+ */
+public class TradeIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final TradeBatch batch;
+
+    private final int[][] starts;
+    private final int[][] ends;
+
+    public TradeIndex(Collection<Trade> trades) {
+        batch = new TradeBatch(trades);
+
+        starts = new int[Exchange.values().length][TradeBatch.OTHER_SIDE + 1];
+        ends = new int[Exchange.values().length][TradeBatch.OTHER_SIDE + 1];
+
+        for (int position = 0; position < batch.size(); position++) {
+            int exchange = batch.exchange(position);
+            byte side = batch.side(position);
+
+            if (ends[exchange][side] == 0) {
+                starts[exchange][side] = position;
+            }
+            ends[exchange][side] = position + 1;
+        }
+    }
+
+    public TradeBatch getBatch() {
+        return batch;
+    }
+
+    /**
+     * @return positions in the batch of the trades of {@code exchange} on {@code side} executed strictly between
+     * the two epoch millis, oldest first, skipping trades without order id or whose order id is excluded
+     */
+    public int[] select(Exchange exchange, String side, long fromExclusive, long toExclusive, BitSet excludedOrderIds) {
+        byte sideCode = TradeBatch.side(side);
+
+        if (exchange == null || sideCode == TradeBatch.OTHER_SIDE) {
+            return NONE;
+        }
+
+        int start = firstAfter(starts[exchange.ordinal()][sideCode], ends[exchange.ordinal()][sideCode], fromExclusive);
+        int end = firstAfter(start, ends[exchange.ordinal()][sideCode], toExclusive - 1);
+
+        if (start >= end) {
+            return NONE;
+        }
+
+        int[] positions = new int[end - start];
+        int count = 0;
+
+        for (int position = start; position < end; position++) {
+            int orderId = batch.orderId(position);
+            if (orderId != TradeBatch.NO_ORDER_ID && !excludedOrderIds.get(orderId)) {
+                positions[count++] = position;
+            }
+        }
+
+        return count == positions.length ? positions : Arrays.copyOf(positions, count);
+    }
+
+    public static long toEpochMilli(Trade trade) {
+        return trade.getDateTime().toInstant().toEpochMilli();
+    }
+
+    private int firstAfter(int low, int high, long timestamp) {
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (batch.timestamp(middle) <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+}
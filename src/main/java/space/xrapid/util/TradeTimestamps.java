@@ -0,0 +1,159 @@
+package space.xrapid.util;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Converts the timestamps published by exchanges to epoch millis, reading digits in place instead
+ * of rewriting the text for a {@link java.time.format.DateTimeFormatter}.
+ * <p>
+ * Accepted: {@code yyyy-MM-dd'T'HH:mm:ss} or {@code yyyy-MM-dd HH:mm:ss}, followed by optional fraction
+ * digits and an optional {@code Z}, {@code ±HH:mm} or {@code ±HHmm} offset, UTC when absent. Fractions
+ * are ignored: trades have always been matched to the second.
+ */
+public final class TradeTimestamps {
+
+    private static final long SECONDS_PER_DAY = 86400;
+
+    private TradeTimestamps() {
+    }
+
+    public static long parseEpochMilli(CharSequence text) {
+        return parseEpochMilli(text, false);
+    }
+
+    /**
+     * Same as {@link #parseEpochMilli(CharSequence)}, except that whatever follows fraction digits, offset
+     * included, is ignored and the time read as UTC, as feeds documented in UTC always were.
+     */
+    public static long parseTruncatedEpochMilli(CharSequence text) {
+        return parseEpochMilli(text, true);
+    }
+
+    private static long parseEpochMilli(CharSequence text, boolean truncatedAfterFraction) {
+        int length = text.length();
+
+        if (length < 19) {
+            throw new DateTimeParseException("Timestamp too short", text, 0);
+        }
+
+        int year = digits(text, 0, 4);
+        expect(text, 4, '-');
+        int month = digits(text, 5, 2);
+        expect(text, 7, '-');
+        int day = digits(text, 8, 2);
+
+        char separator = text.charAt(10);
+        if (separator != 'T' && separator != ' ') {
+            throw new DateTimeParseException("Unexpected date time separator", text, 10);
+        }
+
+        int hour = digits(text, 11, 2);
+        expect(text, 13, ':');
+        int minute = digits(text, 14, 2);
+        expect(text, 16, ':');
+        int second = digits(text, 17, 2);
+
+        if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 59) {
+            throw new DateTimeParseException("Timestamp field out of range", text, 0);
+        }
+
+        int position = 19;
+
+        if (position < length && text.charAt(position) == '.') {
+            position++;
+            while (position < length && isDigit(text.charAt(position))) {
+                position++;
+            }
+
+            if (truncatedAfterFraction) {
+                position = length;
+            }
+        }
+
+        int offsetInSeconds = 0;
+
+        if (position < length) {
+            char sign = text.charAt(position);
+
+            if (sign == 'Z') {
+                position++;
+            } else if (sign == '+' || sign == '-') {
+                int offsetHours = digits(text, position + 1, 2);
+                position += 3;
+
+                if (position < length && text.charAt(position) == ':') {
+                    position++;
+                }
+
+                int offsetMinutes = position < length ? digits(text, position, 2) : 0;
+                position = Math.min(length, position + 2);
+
+                offsetInSeconds = (sign == '+' ? 1 : -1) * (offsetHours * 3600 + offsetMinutes * 60);
+            }
+
+            if (position != length) {
+                throw new DateTimeParseException("Unexpected trailing characters", text, position);
+            }
+        }
+
+        long epochSecond = epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second - offsetInSeconds;
+
+        return epochSecond * 1000;
+    }
+
+    public static OffsetDateTime parse(CharSequence text) {
+        return ofEpochMilli(parseEpochMilli(text));
+    }
+
+    public static OffsetDateTime ofEpochMilli(long epochMilli) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.UTC);
+    }
+
+    public static OffsetDateTime ofEpochSecond(long epochSecond) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneOffset.UTC);
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic gregorian date, as computed by {@link java.time.LocalDate#toEpochDay()}.
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int digits(CharSequence text, int from, int count) {
+        if (from + count > text.length()) {
+            throw new DateTimeParseException("Timestamp truncated", text, from);
+        }
+
+        int value = 0;
+
+        for (int i = from; i < from + count; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                throw new DateTimeParseException("Digit expected", text, i);
+            }
+            value = value * 10 + (c - '0');
+        }
+
+        return value;
+    }
+
+    private static void expect(CharSequence text, int position, char expected) {
+        if (text.charAt(position) != expected) {
+            throw new DateTimeParseException("'" + expected + "' expected", text, position);
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,151 @@
+package space.xrapid.util;
+
+import space.xrapid.domain.Trade;
+import space.xrapid.domain.TradeCursor;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * Long-lived ring buffer of the trades collected from one exchange, oldest first, to which each fetch
+ * appends its delta and from which trades leave once older than the matching horizon.
+ * <p>
+ * Deltas may overlap the newest trades of the window: trades already present are skipped, counting
+ * identical trades so that two distinct executions with the same fields are both kept. Late trades
+ * are inserted at their place, so readers always get trades sorted by execution time.
+ */
+public class TradeWindow {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private Trade[] trades = new Trade[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+
+    private int head;
+    private int size;
+
+    public synchronized TradeCursor cursor() {
+        if (size == 0) {
+            return null;
+        }
+
+        Trade last = get(size - 1);
+        return new TradeCursor(last.getDateTime(), last.getOrderId());
+    }
+
+    /**
+     * @return number of trades actually added
+     */
+    public synchronized int merge(List<Trade> delta) {
+        List<Trade> sorted = new ArrayList<>(delta);
+        sorted.removeIf(trade -> trade.getDateTime() == null);
+        sorted.sort(Comparator.comparingLong(TradeIndex::toEpochMilli));
+
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Integer> overlap = new HashMap<>();
+        long deltaStart = TradeIndex.toEpochMilli(sorted.get(0));
+
+        for (int i = size - 1; i >= 0 && timestamp(i) >= deltaStart; i--) {
+            overlap.merge(key(get(i)), 1, Integer::sum);
+        }
+
+        int added = 0;
+
+        for (Trade trade : sorted) {
+            String key = key(trade);
+            Integer alreadyCollected = overlap.get(key);
+
+            if (alreadyCollected == null) {
+                add(trade);
+                added++;
+            } else if (alreadyCollected == 1) {
+                overlap.remove(key);
+            } else {
+                overlap.put(key, alreadyCollected - 1);
+            }
+        }
+
+        return added;
+    }
+
+    /**
+     * Drops trades executed at or before {@code begin}.
+     */
+    public synchronized void evictBefore(OffsetDateTime begin) {
+        long limit = begin.toInstant().toEpochMilli();
+
+        while (size > 0 && timestamps[head] <= limit) {
+            trades[head] = null;
+            head = (head + 1) % trades.length;
+            size--;
+        }
+    }
+
+    /**
+     * @return immutable copy of the trades currently in the window, oldest first
+     */
+    public synchronized List<Trade> snapshot() {
+        Trade[] copy = new Trade[size];
+
+        int firstPart = Math.min(size, trades.length - head);
+        System.arraycopy(trades, head, copy, 0, firstPart);
+        System.arraycopy(trades, 0, copy, firstPart, size - firstPart);
+
+        return Collections.unmodifiableList(Arrays.asList(copy));
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void add(Trade trade) {
+        if (size == trades.length) {
+            grow();
+        }
+
+        long timestamp = TradeIndex.toEpochMilli(trade);
+
+        int position = size;
+        while (position > 0 && timestamp(position - 1) > timestamp) {
+            set(position, get(position - 1), timestamp(position - 1));
+            position--;
+        }
+
+        set(position, trade, timestamp);
+        size++;
+    }
+
+    private void grow() {
+        Trade[] grownTrades = new Trade[trades.length * 2];
+        long[] grownTimestamps = new long[trades.length * 2];
+
+        for (int i = 0; i < size; i++) {
+            grownTrades[i] = get(i);
+            grownTimestamps[i] = timestamp(i);
+        }
+
+        trades = grownTrades;
+        timestamps = grownTimestamps;
+        head = 0;
+    }
+
+    private Trade get(int index) {
+        return trades[(head + index) % trades.length];
+    }
+
+    private long timestamp(int index) {
+        return timestamps[(head + index) % trades.length];
+    }
+
+    private void set(int index, Trade trade, long timestamp) {
+        trades[(head + index) % trades.length] = trade;
+        timestamps[(head + index) % trades.length] = timestamp;
+    }
+
+    private static String key(Trade trade) {
+        return trade.getOrderId() + "|" + TradeIndex.toEpochMilli(trade) + "|" + trade.getSide() + "|" + trade.getAmount() + "|" + trade.getRate();
+    }
+}
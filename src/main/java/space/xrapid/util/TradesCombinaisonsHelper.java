@@ -1,64 +1,37 @@
 package space.xrapid.util;
 
-import org.paukov.combinatorics3.Generator;
-import org.paukov.combinatorics3.IGenerator;
 import space.xrapid.domain.Trade;
 
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
 
 public class TradesCombinaisonsHelper {
 
+    private static final int MAX_TRADES_PER_PAYMENT = 9;
 
-    public static List<Trade> getTrades(List<Trade> trades, double amount) {
+    /**
+     * @return positions in the batch of the closest combination among {@code positions}, empty when none is close enough
+     */
+    public static int[] getTrades(TradeBatch batch, int[] positions, double amount) {
 
-        int maxSize = trades.size() > 9 ? 9 : trades.size();
+        int maxSize = positions.length > MAX_TRADES_PER_PAYMENT ? MAX_TRADES_PER_PAYMENT : positions.length;
 
-        return getTrades(trades, amount, maxSize);
-    }
-
-    private static List<Trade> getTrades(List<Trade> trades, double amount, int maxSize) {
-        List<Trade> toReturn = new ArrayList<>();
-
-        double min = 10000;
-
-
-        for (int i = 1; i <= maxSize; i++) {
-
-            long start = new Date().getTime();
-
-            IGenerator<List<Trade>> combinaisons = Generator.combination(trades).simple(i);
-
-            Iterator<List<Trade>> iterator = combinaisons.iterator();
-
-            while (iterator.hasNext()) {
-                List<Trade> candidates = iterator.next();
-
-                double sum = sum(candidates);
-                double diff = Math.abs(sum - amount);
-
-                if (diff <= 0.05) {
-
-                    if (diff <= 0.02) {
-                        return candidates;
-                    }
-
-                    if (diff < min) {
-                        toReturn =  candidates;
-                        min = diff;
+        double[] amounts = new double[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            amounts[i] = batch.amount(positions[i]);
+        }
 
-                        if (new Date().getTime() - start > 15000) {
-                            break;
-                        }
-                    }
-                }
+        return Arrays.stream(SubsetSumMatcher.match(amounts, amount, maxSize))
+                .map(i -> positions[i])
+                .toArray();
+    }
 
-            }
+    public static double sum(TradeBatch batch, int[] positions) {
+        double sum = 0;
+        for (int position : positions) {
+            sum += batch.amount(position);
         }
-
-        return toReturn;
+        return sum;
     }
 
     public static Double sum(List<Trade> groups) {
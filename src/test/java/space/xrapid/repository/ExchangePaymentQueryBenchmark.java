@@ -0,0 +1,170 @@
+package space.xrapid.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketServletAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import space.xrapid.domain.Currency;
+import space.xrapid.domain.Exchange;
+import space.xrapid.domain.ExchangeToExchangePayment;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Times the payment queries on an embedded H2 database holding {@link #ROWS} payments spread over two years,
+ * without then with the indexes declared on {@link ExchangeToExchangePayment}.
+ * <p>
+ * Left out of the default build, run it with {@code mvn test -Pbenchmark}.
+ */
+class ExchangePaymentQueryBenchmark {
+
+    private static final int ROWS = 1_200_000;
+    private static final long SPAN_IN_MS = 730L * 24 * 3600 * 1000;
+    private static final long DAY_IN_MS = 24 * 3600 * 1000;
+
+    private static final int WARMUPS = 3;
+    private static final int RUNS = 7;
+
+    private static final Currency[] FIATS = {Currency.USD, Currency.EUR, Currency.MXN, Currency.PHP, Currency.AUD, Currency.BRL};
+    private static final Exchange[] EXCHANGES = {Exchange.BITSTAMP, Exchange.BITSO, Exchange.BITSTAMP_EUR, Exchange.BTC_MARKETS};
+
+    private static final String CREATE_TIMESTAMP_INDEX = "CREATE INDEX idx_exchange_payment_timestamp ON exchange_payment (timestamp DESC, source_fiat, destination_fiat, usd_value)";
+    private static final String CREATE_CORRIDOR_INDEX = "CREATE INDEX idx_exchange_payment_corridor ON exchange_payment (source_fiat, destination_fiat, timestamp)";
+
+    private static ConfigurableApplicationContext context;
+    private static ExchangeToExchangePaymentRepository repository;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    private static long now;
+
+    @Configuration
+    @EnableAutoConfiguration(exclude = WebSocketServletAutoConfiguration.class)
+    @EntityScan(basePackageClasses = ExchangeToExchangePayment.class)
+    @EnableJpaRepositories(basePackageClasses = ExchangeToExchangePaymentRepository.class)
+    static class BenchmarkConfig {
+    }
+
+    @BeforeAll
+    static void populate() {
+        context = new SpringApplicationBuilder(BenchmarkConfig.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=0",
+                        "--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=sa",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.cache.type=none",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+
+        repository = context.getBean(ExchangeToExchangePaymentRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        now = System.currentTimeMillis();
+        Random random = new Random(1);
+        List<Object[]> rows = new ArrayList<>();
+
+        for (int i = 0; i < ROWS; i++) {
+            long timestamp = now - (long) (random.nextDouble() * SPAN_IN_MS);
+
+            rows.add(new Object[]{timestamp, new Timestamp(timestamp),
+                    EXCHANGES[random.nextInt(EXCHANGES.length)].name(), EXCHANGES[random.nextInt(EXCHANGES.length)].name(),
+                    FIATS[random.nextInt(FIATS.length)].name(), FIATS[random.nextInt(FIATS.length)].name(),
+                    random.nextDouble() * 100000, random.nextDouble() * 100000, "hash" + i, random.nextInt(10) == 0});
+
+            if (rows.size() == 10000 || i == ROWS - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO exchange_payment (timestamp, date_time, source, destination, source_fiat, destination_fiat, " +
+                        "amount, usd_value, transaction_hash, in_trade_found, out_trade_found, confirmed) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, FALSE, TRUE)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    @AfterAll
+    static void close() {
+        context.close();
+    }
+
+    @Test
+    void queriesUseIndexes() {
+        Map<String, Supplier<Object>> queries = queries();
+
+        jdbcTemplate.execute("DROP INDEX idx_exchange_payment_timestamp");
+        jdbcTemplate.execute("DROP INDEX idx_exchange_payment_corridor");
+        Map<String, Object> expected = new LinkedHashMap<>();
+        Map<String, Long> withoutIndexes = new LinkedHashMap<>();
+        queries.forEach((name, query) -> {
+            expected.put(name, query.get());
+            withoutIndexes.put(name, time(query));
+        });
+
+        jdbcTemplate.execute(CREATE_TIMESTAMP_INDEX);
+        jdbcTemplate.execute(CREATE_CORRIDOR_INDEX);
+        System.out.println(String.format("%,d payments, best of %d runs in ms, without -> with indexes", ROWS, RUNS));
+        queries.forEach((name, query) -> {
+            assertEquals(expected.get(name), query.get(), name);
+            System.out.println(String.format("  %-36s %9.1f -> %9.1f", name, withoutIndexes.get(name) / 1e6, time(query) / 1e6));
+        });
+
+        assertTrue(plan("SELECT * FROM exchange_payment WHERE timestamp >= 0 AND timestamp <= 1").contains("IDX_EXCHANGE_PAYMENT_TIMESTAMP"));
+        assertTrue(plan("SELECT * FROM exchange_payment ORDER BY timestamp DESC LIMIT 10").contains("IDX_EXCHANGE_PAYMENT_TIMESTAMP"));
+        assertTrue(plan("SELECT MIN(timestamp) FROM exchange_payment").contains("IDX_EXCHANGE_PAYMENT_TIMESTAMP"));
+    }
+
+    private static Map<String, Supplier<Object>> queries() {
+        Map<String, Supplier<Object>> queries = new LinkedHashMap<>();
+
+        queries.put("findByDate (24h)", () -> repository.findByDate(now - DAY_IN_MS, now).size());
+        queries.put("findLastSummaries (1000)", () -> repository.findLastSummaries(PageRequest.of(0, 1000)).size());
+        queries.put("findTopWithTrades (1000)", () -> repository.findTopWithTrades(1000).size());
+        queries.put("getFirstTimestamp", () -> repository.getFirstTimestamp());
+        queries.put("getVolumeBySourceAndDestination (24h)", () -> repository.getVolumeBySourceAndDestinationBetween(
+                Exchange.BITSTAMP.name(), Exchange.BITSO.name(), now - DAY_IN_MS, now));
+        queries.put("findPaymentsAfter USD -> MXN (30d)", () -> transactionTemplate.execute(status -> repository.findPaymentsAfter(
+                now - 30 * DAY_IN_MS, now, Currency.USD, Currency.MXN, 0, 0, PageRequest.of(0, 500)).size()));
+        queries.put("getCorridorDailyVolumes", () -> repository.getCorridorDailyVolumes().size());
+
+        return queries;
+    }
+
+    private static long time(Supplier<Object> query) {
+        for (int i = 0; i < WARMUPS; i++) {
+            query.get();
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            query.get();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        return best;
+    }
+
+    private static String plan(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}